@@ -0,0 +1,60 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.exception.ApiResponse;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of ApiResponse<List<ProductSummary>> — the body of
+ * every list endpoint — at typical, large and very large page sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int pageSize;
+
+    private JsonMapper                        mapper;
+    private ApiResponse<List<ProductSummary>> response;
+
+    @Setup
+    public void setUp() {
+        mapper = JsonMapper.builder().build();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductSummary> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(ProductSummary.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Product " + i)
+                    .category("Electronics")
+                    .price(new BigDecimal("999.99"))
+                    .stock(i)
+                    .stockStatus(i > 0 ? "IN STOCK" : "OUT OF STOCK")
+                    .description("A typical product description of moderate length, number " + i)
+                    .createdAt(now)
+                    .lastUpdatedAt(now)
+                    .build());
+        }
+        response = ApiResponse.success(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return mapper.writeValueAsBytes(response);
+    }
+}
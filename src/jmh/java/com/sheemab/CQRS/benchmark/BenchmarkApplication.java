@@ -0,0 +1,53 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.CqrsApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the real application (no web server) against an in-memory H2
+ * database in PostgreSQL mode, so benchmarks exercise the same beans,
+ * transactions and SQL as production.
+ *
+ * The in-memory projection queue is used instead of the outbox relay:
+ * H2 has no FOR UPDATE SKIP LOCKED, and the relay is not what is measured.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String name, String... properties) {
+        return builder(name)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    // Same setup with Tomcat on a random port, for HTTP-level load tests.
+    // Page cache and query coalescing off: every request reaches the database.
+    static ConfigurableApplicationContext startWeb(String name, boolean virtualThreads) {
+        return builder(name)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "cqrs.cache.product-listing.enabled=false",
+                        "cqrs.query.coalescing.enabled=false")
+                .run();
+    }
+
+    private static SpringApplicationBuilder builder(String name) {
+        return new SpringApplicationBuilder(CqrsApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + name
+                                + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "cqrs.outbox.enabled=false",
+                        "logging.level.com.sheemab.CQRS=WARN");
+    }
+}
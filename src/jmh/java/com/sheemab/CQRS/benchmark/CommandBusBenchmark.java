@@ -0,0 +1,53 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.CommandBus.CommandBus;
+import com.sheemab.CQRS.command.CreateProductCommand;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end cost of CommandBus.dispatch(CreateProductCommand):
+ * middleware chain, duplicate check, INSERT, event publication and commit.
+ * The asynchronous projection runs on its own worker and is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CommandBusBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private CommandBus                     commandBus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context    = BenchmarkApplication.start("command-bus");
+        commandBus = context.getBean(CommandBus.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String createProduct() {
+        long n = sequence.incrementAndGet();
+        return commandBus.dispatch(CreateProductCommand.builder()
+                .name("Benchmark product " + n)
+                .category("Benchmark")
+                .price(BigDecimal.valueOf(19.99))
+                .stock(10)
+                .description("Created by CommandBusBenchmark")
+                .build());
+    }
+}
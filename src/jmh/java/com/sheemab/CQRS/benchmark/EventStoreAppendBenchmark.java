@@ -0,0 +1,109 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.repository.ProductWriteRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-model persistence cost, one transaction per operation:
+ *
+ *   stateSave     — writeRepository.save(product) for a new product
+ *                   (the state-based path)
+ *   eventAppend   — ProductEventStore.append of its ProductCreatedEvent
+ *   streamAppend  — ProductEventStore.append of a created event plus
+ *                   `updates` update events in one batch (snapshots included)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventStoreAppendBenchmark {
+
+    @Param({ "10", "100" })
+    public int updates;
+
+    private ConfigurableApplicationContext context;
+    private ProductWriteRepository         writeRepository;
+    private ProductEventStore              eventStore;
+    private TransactionTemplate            transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context         = BenchmarkApplication.start("event-store-" + updates);
+        writeRepository = context.getBean(ProductWriteRepository.class);
+        eventStore      = context.getBean(ProductEventStore.class);
+        transactions    = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product stateSave() {
+        return transactions.execute(status -> writeRepository.save(Product.builder()
+                .name("Benchmark product " + UUID.randomUUID())
+                .category("Benchmark")
+                .price(BigDecimal.valueOf(19.99))
+                .stock(10)
+                .description("Saved by EventStoreAppendBenchmark")
+                .build()));
+    }
+
+    @Benchmark
+    public Product eventAppend() {
+        Product product = newAggregate();
+        transactions.executeWithoutResult(status ->
+                eventStore.append(product, 0, List.of(created(product))));
+        return product;
+    }
+
+    @Benchmark
+    public Product streamAppend() {
+        Product product = newAggregate();
+        List<ProductEvent> events = new ArrayList<>(updates + 1);
+        events.add(created(product));
+        for (int i = 0; i < updates; i++) {
+            events.add(new ProductUpdatedEvent(product.getId(), product.getName(), product.getCategory(),
+                    product.getPrice(), i, product.getDescription(), product.getUpdatedAt()));
+        }
+        transactions.executeWithoutResult(status -> eventStore.append(product, 0, events));
+        return product;
+    }
+
+    private static Product newAggregate() {
+        LocalDateTime now = LocalDateTime.now();
+        return Product.builder()
+                .id(UUID.randomUUID().toString())
+                .name("Benchmark product")
+                .category("Benchmark")
+                .price(BigDecimal.valueOf(19.99))
+                .stock(10)
+                .description("Appended by EventStoreAppendBenchmark")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static ProductCreatedEvent created(Product product) {
+        return new ProductCreatedEvent(product.getId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getStock(), product.getDescription(), product.getCreatedAt());
+    }
+}
@@ -0,0 +1,77 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.CommandBus.CommandBus;
+import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.events.ProductViewsProjectedEvent;
+import com.sheemab.CQRS.query.GetProductByIdQuery;
+import com.sheemab.CQRS.query_cache.ProductSummaryCache;
+import com.sheemab.CQRS.query_handler.GetProductByIdQueryHandler;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GetProductByIdQueryHandler.handle with a warm cache (every call a hit)
+ * and a cold cache (the entry is evicted before every call, so each call
+ * goes to the database and maps a fresh ProductSummary).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GetProductByIdBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private GetProductByIdQueryHandler     handler;
+    private ProductSummaryCache            cache;
+    private GetProductByIdQuery            query;
+    private ProductViewsProjectedEvent     eviction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        context = BenchmarkApplication.start("get-by-id");
+        handler = context.getBean(GetProductByIdQueryHandler.class);
+        cache   = context.getBean(ProductSummaryCache.class);
+
+        String id = context.getBean(CommandBus.class).dispatch(CreateProductCommand.builder()
+                .name("Benchmark product")
+                .category("Benchmark")
+                .price(BigDecimal.valueOf(19.99))
+                .stock(10)
+                .description("Read by GetProductByIdBenchmark")
+                .build());
+
+        // The projection is asynchronous — wait until the view row exists
+        ProductReadRepository readRepository = context.getBean(ProductReadRepository.class);
+        while (!readRepository.existsById(id)) {
+            Thread.sleep(10);
+        }
+
+        query    = new GetProductByIdQuery(id);
+        eviction = new ProductViewsProjectedEvent(Set.of(id), Set.of(), false, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductSummary warmCache() {
+        return handler.handle(query);
+    }
+
+    @Benchmark
+    public ProductSummary coldCache() {
+        cache.on(eviction);
+        return handler.handle(query);
+    }
+}
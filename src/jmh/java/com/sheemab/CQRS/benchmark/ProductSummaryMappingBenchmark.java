@@ -0,0 +1,48 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_handler.ProductSummaryMapper;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of ProductView → ProductSummary mapping, paid once per row returned
+ * by every query handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSummaryMappingBenchmark {
+
+    private ProductView view;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        view = ProductView.builder()
+                .id(UUID.randomUUID().toString())
+                .name("Laptop")
+                .category("Electronics")
+                .price(new BigDecimal("999.99"))
+                .stock(10)
+                .description("High-performance laptop")
+                .stockStatus("IN STOCK")
+                .createdAt(now)
+                .lastUpdatedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public ProductSummary toSummary() {
+        return ProductSummaryMapper.toSummary(view);
+    }
+}
@@ -0,0 +1,73 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.CommandBus.CommandBus;
+import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.command.DecrementStockCommand;
+import com.sheemab.CQRS.config.HotStockProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained decrements per second on ONE hot product, 16 threads at once,
+ * through CommandBus.dispatch(DecrementStockCommand):
+ *
+ *   atomic  — one conditional UPDATE per decrement; the threads queue on
+ *             the product's row lock
+ *   striped — the product is in cqrs.stock.hot.product-ids: decrements are
+ *             CASes on striped counters, with one UPDATE per batchSize units
+ *
+ * Neither mode ever sees a version conflict, which is what a
+ * load-modify-save UpdateProductCommand would hit here on nearly every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class StockDecrementBenchmark {
+
+    @Param({ "atomic", "striped" })
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private CommandBus                     commandBus;
+    private DecrementStockCommand          decrement;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context    = BenchmarkApplication.start("stock-" + mode, "cqrs.stock.hot.batch-size=1000");
+        commandBus = context.getBean(CommandBus.class);
+
+        String productId = commandBus.dispatch(CreateProductCommand.builder()
+                .name("Hot product")
+                .category("Benchmark")
+                .price(BigDecimal.valueOf(19.99))
+                .stock(Integer.MAX_VALUE)
+                .description("Decremented by StockDecrementBenchmark")
+                .build());
+
+        if ("striped".equals(mode)) {
+            context.getBean(HotStockProperties.class).getProductIds().add(productId);
+        }
+        decrement = DecrementStockCommand.builder()
+                .productId(productId)
+                .quantity(1)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object decrement() {
+        return commandBus.dispatch(decrement);
+    }
+}
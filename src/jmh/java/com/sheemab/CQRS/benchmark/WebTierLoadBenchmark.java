@@ -0,0 +1,86 @@
+package com.sheemab.CQRS.benchmark;
+
+
+import com.sheemab.CQRS.CommandBus.CommandBus;
+import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load test: 400 concurrent clients paging GET /api/products against
+ * Tomcat on platform threads (max 200 workers) vs virtual threads.
+ *
+ * SampleTime mode reports the latency distribution, so the JSON result
+ * carries p99 per mode next to the throughput; every request hits the
+ * database, which is where the connection gate queues callers.
+ *
+ *   mvn -Pjmh verify -Djmh.args="WebTierLoadBenchmark -rf json -rff target/jmh-web.json"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class WebTierLoadBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient                     client;
+    private HttpRequest                    request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        context = BenchmarkApplication.startWeb("web-load-" + virtualThreads, virtualThreads);
+
+        CommandBus commandBus = context.getBean(CommandBus.class);
+        String lastId = null;
+        for (int i = 0; i < PRODUCTS; i++) {
+            lastId = commandBus.dispatch(CreateProductCommand.builder()
+                    .name("Load product " + i)
+                    .category("Category " + (i % 10))
+                    .price(BigDecimal.valueOf(10 + i % 90))
+                    .stock(i % 50)
+                    .description("Seeded by WebTierLoadBenchmark")
+                    .build());
+        }
+        ProductReadRepository readRepository = context.getBean(ProductReadRepository.class);
+        while (!readRepository.existsById(lastId)) {
+            Thread.sleep(10);
+        }
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client  = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/products?size=50")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listProducts() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/products returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -3,15 +3,18 @@ package com.sheemab.CQRS.CommandBus;
 
 
 
-import com.sheemab.CQRS.command.CreateProductCommand;
-import com.sheemab.CQRS.command.DeleteProductCommand;
-import com.sheemab.CQRS.command.UpdateProductCommand;
-import com.sheemab.CQRS.command_handler.CreateProductCommandHandler;
-import com.sheemab.CQRS.command_handler.DeleteProductCommandHandler;
-import com.sheemab.CQRS.command_handler.UpdateProductCommandHandler;
-import lombok.RequiredArgsConstructor;
+import com.sheemab.CQRS.command.Command;
+import com.sheemab.CQRS.command_handler.CommandHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * COMMAND BUS — the single entry point for all commands.
  *
@@ -23,33 +26,79 @@ import org.springframework.stereotype.Component;
  *   2. Testability — you can mock the bus in controller tests without
  *      setting up the entire handler dependency tree.
  *
- *   3. Cross-cutting concerns — in production you'd add logging, metrics,
- *      authorization, transaction boundaries, retry logic here. Every
- *      command automatically gets these without touching individual handlers.
+ *   3. Cross-cutting concerns — logging, metrics, retries, idempotency are
+ *      CommandMiddleware beans. Every command automatically runs through
+ *      them without touching individual handlers.
  *
  *   4. Easy refactoring — if you change a handler's signature or swap
  *      implementations, the controller never changes.
  *
+ * How routing works:
+ *   At startup every CommandHandler bean is registered under the command
+ *   class it handles (read from its generic type), and its middleware chain
+ *   is built once. dispatch() is then one map lookup plus the chain call —
+ *   no reflection and no allocation per command.
+ *
  * Note: In a real enterprise system you'd use a framework like Axon or
  * MediatR. This is a lightweight hand-rolled version for learning.
  */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class CommandBus {
 
-    private final CreateProductCommandHandler createHandler;
-    private final UpdateProductCommandHandler updateHandler;
-    private final DeleteProductCommandHandler deleteHandler;
+    private final Map<Class<?>, CommandChain> chains;
+
+    public CommandBus(List<CommandHandler<?, ?>> handlers, ObjectProvider<CommandMiddleware> middlewareBeans) {
+        List<CommandMiddleware> middlewares = middlewareBeans.orderedStream().toList();
+        Map<Class<?>, CommandChain> byType = new HashMap<>();
+
+        for (CommandHandler<?, ?> handler : handlers) {
+            Class<?> commandType = ResolvableType.forClass(AopUtils.getTargetClass(handler))
+                    .as(CommandHandler.class)
+                    .resolveGeneric(0);
+            if (commandType == null) {
+                throw new IllegalStateException(
+                        "Cannot resolve command type of " + AopUtils.getTargetClass(handler).getName());
+            }
+
+            // Build the chain inside-out: handler first, then middleware in reverse order
+            CommandChain chain = invoke(handler);
+            for (int i = middlewares.size() - 1; i >= 0; i--) {
+                CommandMiddleware middleware = middlewares.get(i);
+                if (middleware.appliesTo(commandType)) {
+                    CommandChain next = chain;
+                    chain = command -> middleware.handle(command, next);
+                }
+            }
+
+            if (byType.putIfAbsent(commandType, chain) != null) {
+                throw new IllegalStateException("More than one handler for " + commandType.getName());
+            }
+        }
+
+        this.chains = Map.copyOf(byType);
+        log.info("CommandBus registered {} handler(s) with {} middleware(s)",
+                chains.size(), middlewares.size());
+    }
 
-    public String dispatch(CreateProductCommand command) {
-        return createHandler.handle(command);
+    /** Whether a handler is registered for this command type (some depend on the write model). */
+    public boolean handles(Class<? extends Command<?>> commandType) {
+        return chains.containsKey(commandType);
     }
 
-    public void dispatch(UpdateProductCommand command) {
-        updateHandler.handle(command);
+    @SuppressWarnings("unchecked")
+    public <R> R dispatch(Command<R> command) {
+        CommandChain chain = chains.get(command.getClass());
+        if (chain == null) {
+            throw new IllegalArgumentException(
+                    "No handler registered for " + command.getClass().getName());
+        }
+        return (R) chain.proceed(command);
     }
 
-    public void dispatch(DeleteProductCommand command) {
-        deleteHandler.handle(command);
+    @SuppressWarnings("unchecked")
+    private static CommandChain invoke(CommandHandler<?, ?> handler) {
+        CommandHandler<Command<Object>, Object> typed = (CommandHandler<Command<Object>, Object>) handler;
+        return command -> typed.handle((Command<Object>) command);
     }
 }
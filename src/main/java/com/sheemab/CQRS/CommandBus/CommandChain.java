@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.CommandBus;
+
+
+import com.sheemab.CQRS.command.Command;
+
+/**
+ * The rest of the pipeline, as seen by a CommandMiddleware:
+ * the next middleware, or finally the handler itself.
+ */
+@FunctionalInterface
+public interface CommandChain {
+
+    Object proceed(Command<?> command);
+}
@@ -0,0 +1,24 @@
+package com.sheemab.CQRS.CommandBus;
+
+
+import com.sheemab.CQRS.command.Command;
+
+/**
+ * A cross-cutting step wrapped around every command handler
+ * (metrics, retries, idempotency, tracing, ...).
+ *
+ * Every middleware bean is picked up by the CommandBus and ordered with
+ * @Order — lower values run first (outermost). A middleware must call
+ * next.proceed(command) to continue, or return/throw to short-circuit.
+ *
+ * appliesTo is evaluated ONCE per command type at startup, so a middleware
+ * that only cares about some commands costs nothing on the others.
+ */
+public interface CommandMiddleware {
+
+    default boolean appliesTo(Class<?> commandType) {
+        return true;
+    }
+
+    Object handle(Command<?> command, CommandChain next);
+}
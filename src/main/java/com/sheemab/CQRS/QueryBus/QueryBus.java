@@ -1,48 +1,87 @@
 package com.sheemab.CQRS.QueryBus;
 
 
-import com.sheemab.CQRS.query.GetAllProductsQuery;
-import com.sheemab.CQRS.query.GetProductByIdQuery;
-import com.sheemab.CQRS.query.GetProductsByCategoryQuery;
-import com.sheemab.CQRS.query_handler.GetAllProductsQueryHandler;
-import com.sheemab.CQRS.query_handler.GetProductByIdQueryHandler;
-import com.sheemab.CQRS.query_handler.GetProductsByCategoryQueryHandler;
-import com.sheemab.CQRS.query_response.ProductSummary;
-import lombok.RequiredArgsConstructor;
+import com.sheemab.CQRS.query.Query;
+import com.sheemab.CQRS.query_handler.QueryHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * QUERY BUS — the single entry point for all queries.
  *
  * Same benefits as the CommandBus:
  *   - Decouples controller from handler
- *   - Single place for cross-cutting concerns (caching, logging, authorization)
+ *   - Single place for cross-cutting concerns (QueryMiddleware beans:
+ *     caching, logging, metrics, authorization)
  *   - Easy to mock in tests
  *   - Easy to refactor handlers
  *
+ * Routing is the same as the CommandBus: handlers are registered by query
+ * class and their middleware chains are built once at startup.
+ *
  * Key CQRS rule:
  *   Queries return data. They NEVER modify state.
  *   All query methods here are read-only operations.
  */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class QueryBus {
 
-    private final GetProductByIdQueryHandler getByIdHandler;
-    private final GetAllProductsQueryHandler getAllHandler;
-    private final GetProductsByCategoryQueryHandler getByCategoryHandler;
+    private final Map<Class<?>, QueryChain> chains;
+
+    public QueryBus(List<QueryHandler<?, ?>> handlers, ObjectProvider<QueryMiddleware> middlewareBeans) {
+        List<QueryMiddleware> middlewares = middlewareBeans.orderedStream().toList();
+        Map<Class<?>, QueryChain> byType = new HashMap<>();
+
+        for (QueryHandler<?, ?> handler : handlers) {
+            Class<?> queryType = ResolvableType.forClass(AopUtils.getTargetClass(handler))
+                    .as(QueryHandler.class)
+                    .resolveGeneric(0);
+            if (queryType == null) {
+                throw new IllegalStateException(
+                        "Cannot resolve query type of " + AopUtils.getTargetClass(handler).getName());
+            }
+
+            // Build the chain inside-out: handler first, then middleware in reverse order
+            QueryChain chain = invoke(handler);
+            for (int i = middlewares.size() - 1; i >= 0; i--) {
+                QueryMiddleware middleware = middlewares.get(i);
+                if (middleware.appliesTo(queryType)) {
+                    QueryChain next = chain;
+                    chain = query -> middleware.handle(query, next);
+                }
+            }
+
+            if (byType.putIfAbsent(queryType, chain) != null) {
+                throw new IllegalStateException("More than one handler for " + queryType.getName());
+            }
+        }
 
-    public ProductSummary dispatch(GetProductByIdQuery query) {
-        return getByIdHandler.handle(query);
+        this.chains = Map.copyOf(byType);
+        log.info("QueryBus registered {} handler(s) with {} middleware(s)",
+                chains.size(), middlewares.size());
     }
 
-    public List<ProductSummary> dispatch(GetAllProductsQuery query) {
-        return getAllHandler.handle(query);
+    @SuppressWarnings("unchecked")
+    public <R> R dispatch(Query<R> query) {
+        QueryChain chain = chains.get(query.getClass());
+        if (chain == null) {
+            throw new IllegalArgumentException(
+                    "No handler registered for " + query.getClass().getName());
+        }
+        return (R) chain.proceed(query);
     }
 
-    public List<ProductSummary> dispatch(GetProductsByCategoryQuery query) {
-        return getByCategoryHandler.handle(query);
+    @SuppressWarnings("unchecked")
+    private static QueryChain invoke(QueryHandler<?, ?> handler) {
+        QueryHandler<Query<Object>, Object> typed = (QueryHandler<Query<Object>, Object>) handler;
+        return query -> typed.handle((Query<Object>) query);
     }
 }
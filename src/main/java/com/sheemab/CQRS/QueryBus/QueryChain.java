@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.QueryBus;
+
+
+import com.sheemab.CQRS.query.Query;
+
+/**
+ * The rest of the pipeline, as seen by a QueryMiddleware:
+ * the next middleware, or finally the handler itself.
+ */
+@FunctionalInterface
+public interface QueryChain {
+
+    Object proceed(Query<?> query);
+}
@@ -0,0 +1,24 @@
+package com.sheemab.CQRS.QueryBus;
+
+
+import com.sheemab.CQRS.query.Query;
+
+/**
+ * A cross-cutting step wrapped around every query handler
+ * (metrics, caching, request coalescing, ...).
+ *
+ * Every middleware bean is picked up by the QueryBus and ordered with
+ * @Order — lower values run first (outermost). A middleware must call
+ * next.proceed(query) to continue, or return/throw to short-circuit.
+ *
+ * appliesTo is evaluated ONCE per query type at startup, so a middleware
+ * that only cares about some queries costs nothing on the others.
+ */
+public interface QueryMiddleware {
+
+    default boolean appliesTo(Class<?> queryType) {
+        return true;
+    }
+
+    Object handle(Query<?> query, QueryChain next);
+}
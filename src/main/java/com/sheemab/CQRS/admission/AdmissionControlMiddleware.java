@@ -0,0 +1,146 @@
+package com.sheemab.CQRS.admission;
+
+
+import com.sheemab.CQRS.CommandBus.CommandChain;
+import com.sheemab.CQRS.CommandBus.CommandMiddleware;
+import com.sheemab.CQRS.command.Command;
+import com.sheemab.CQRS.config.AdmissionProperties;
+import com.sheemab.CQRS.exception.CommandRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MIDDLEWARE — admission control: sheds commands instead of letting them
+ * pile up on the connection pool.
+ *
+ * Without it every request opens a transaction straight away, and once
+ * Hikari is saturated they all wait for a connection and latency grows
+ * without bound. Here:
+ *
+ *   1. At most `limit` commands run at once (ConcurrencyLimiter, static
+ *      or AIMD-adaptive).
+ *   2. The others wait, FIFO, in a queue bounded PER COMMAND TYPE, so a
+ *      burst of bulk upserts can't take all the room from deletes.
+ *   3. Queue for that type full → rejected at once with 429; waited
+ *      maxWait without a slot → rejected with 503. Both carry Retry-After.
+ *
+ * Second in the chain, right inside the metrics middleware: a rejected
+ * command costs no transaction, no idempotency lookup and no retry.
+ *
+ * Metrics: cqrs.admission.queue.depth{command}, cqrs.admission.rejections
+ * {command, reason=queue_full|timeout}, cqrs.admission.wait,
+ * cqrs.admission.limit and cqrs.admission.inflight.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "cqrs.admission.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdmissionControlMiddleware implements CommandMiddleware {
+
+    private final AdmissionProperties   properties;
+    private final ConcurrencyLimiter    limiter;
+    private final MeterRegistry         meterRegistry;
+    private final Map<Class<?>, Lane>   lanes = new ConcurrentHashMap<>();
+    private final Timer                 waitTimer;
+
+    public AdmissionControlMiddleware(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties    = properties;
+        this.limiter       = new ConcurrencyLimiter(properties);
+        this.meterRegistry = meterRegistry;
+
+        this.waitTimer = Timer.builder("cqrs.admission.wait")
+                .description("Time commands waited for an execution slot")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("cqrs.admission.limit", limiter, ConcurrencyLimiter::limit)
+                .description("Commands allowed to execute at once")
+                .register(meterRegistry);
+        Gauge.builder("cqrs.admission.inflight", limiter, ConcurrencyLimiter::inFlight)
+                .description("Commands executing now")
+                .register(meterRegistry);
+
+        log.info("Admission control on: mode={}, limit={}, queueCapacity={} per command type, maxWait={}",
+                properties.getMode(), properties.getLimit(), properties.getQueueCapacity(), properties.getMaxWait());
+    }
+
+    @Override
+    public Object handle(Command<?> command, CommandChain next) {
+        Lane lane = lanes.computeIfAbsent(command.getClass(), this::lane);
+
+        // ── Bounded queue: reject at once when this type's is full ───────────
+        if (lane.waiting.incrementAndGet() > properties.getQueueCapacity()) {
+            lane.waiting.decrementAndGet();
+            lane.queueFull.increment();
+            throw new CommandRejectedException(lane.name, true, properties.getRetryAfter());
+        }
+
+        // ── Wait for a slot, at most maxWait ─────────────────────────────────
+        long waitStart = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = limiter.acquire(properties.getMaxWait().toNanos());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        } finally {
+            lane.waiting.decrementAndGet();
+        }
+        long start = System.nanoTime();
+        waitTimer.record(start - waitStart, TimeUnit.NANOSECONDS);
+        if (!admitted) {
+            lane.timedOut.increment();
+            throw new CommandRejectedException(lane.name, false, properties.getRetryAfter());
+        }
+
+        // ── Run it; how long it took, for its type, feeds the adaptive limit ──
+        boolean overloaded = false;
+        try {
+            return next.proceed(command);
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException ex) {
+            overloaded = true;                          // typically no connection in time
+            throw ex;
+        } finally {
+            boolean slow = lane.latency.isSlow(System.nanoTime() - start);
+            limiter.release(overloaded || slow);
+        }
+    }
+
+    private Lane lane(Class<?> commandType) {
+        String name = commandType.getSimpleName();
+        Lane lane = new Lane(name, new AtomicInteger(),
+                rejections(name, "queue_full"), rejections(name, "timeout"),
+                new LatencyBaseline(properties.getLatencyThreshold().toNanos(), properties.getLatencyTolerance()));
+        Gauge.builder("cqrs.admission.queue.depth", lane.waiting, AtomicInteger::get)
+                .description("Commands waiting for an execution slot")
+                .tag("command", name)
+                .register(meterRegistry);
+        return lane;
+    }
+
+    private Counter rejections(String command, String reason) {
+        return Counter.builder("cqrs.admission.rejections")
+                .description("Commands shed by admission control")
+                .tag("command", command)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Per command type: its wait queue depth, rejection counters and usual latency
+    private record Lane(String name, AtomicInteger waiting, Counter queueFull, Counter timedOut,
+                        LatencyBaseline latency) {
+    }
+}
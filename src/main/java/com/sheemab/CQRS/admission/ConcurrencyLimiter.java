@@ -0,0 +1,86 @@
+package com.sheemab.CQRS.admission;
+
+
+import com.sheemab.CQRS.config.AdmissionProperties;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A limit on commands executing at once, with a FIFO wait for a slot.
+ *
+ * STATIC keeps the configured limit. AIMD (additive increase, multiplicative
+ * decrease) looks at every completion:
+ *   slow for its command type (LatencyBaseline), or out of connections
+ *                                                   → limit × backoffRatio
+ *   fast while at least half the limit was in use  → limit + 1 / limit
+ * so the limit settles just below the concurrency at which the database
+ * starts queueing, and drops quickly when it does.
+ */
+final class ConcurrencyLimiter {
+
+    private final ReentrantLock lock     = new ReentrantLock(true);
+    private final Condition     slotFree = lock.newCondition();
+    private final boolean       adaptive;
+    private final double        minLimit;
+    private final double        maxLimit;
+    private final double        backoffRatio;
+
+    private volatile double limit;
+    private volatile int    inFlight;
+
+    ConcurrencyLimiter(AdmissionProperties properties) {
+        this.adaptive     = properties.getMode() == AdmissionProperties.Mode.AIMD;
+        this.minLimit     = Math.max(1, properties.getMinLimit());
+        this.maxLimit     = Math.max(minLimit, properties.getMaxLimit());
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limit        = Math.max(1, properties.getLimit());
+    }
+
+    /** Waits up to timeoutNanos for a slot. False: none freed up in time. */
+    boolean acquire(long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = slotFree.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Frees the slot; congested = the command was slow or failed for lack of resources. */
+    void release(boolean congested) {
+        lock.lock();
+        try {
+            boolean busy = inFlight * 2 >= limit;
+            inFlight--;
+            if (adaptive) {
+                if (congested) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                } else if (busy) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            for (int free = (int) limit - inFlight; free > 0; free--) {
+                slotFree.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sheemab.CQRS.admission;
+
+
+/**
+ * The usual latency of ONE command type, learned from its completions, and
+ * whether a completion was slow FOR THAT TYPE.
+ *
+ * Slow = longer than tolerance × the baseline, and never below the floor
+ * (latencyThreshold). A 2 s bulk upsert is then normal for bulk upserts,
+ * while a single-row command is judged against its own few milliseconds.
+ *
+ * The baseline is an exponentially weighted average. Slow completions are
+ * folded in capped at the threshold, so a lasting shift (a bigger table)
+ * is learned over a few hundred completions instead of pinning the limit
+ * down, while a short spike barely moves it. Updates are not atomic: an
+ * average tolerates the rare lost sample.
+ */
+final class LatencyBaseline {
+
+    private static final double WEIGHT = 0.05;       // share of each new sample
+
+    private final double floorNanos;
+    private final double tolerance;
+
+    private volatile double averageNanos = Double.NaN;   // no sample yet
+
+    LatencyBaseline(long floorNanos, double tolerance) {
+        this.floorNanos = floorNanos;
+        this.tolerance  = tolerance;
+    }
+
+    /** Records one completion; true if it was slow compared to the ones before. */
+    boolean isSlow(long latencyNanos) {
+        double average = averageNanos;
+        if (Double.isNaN(average)) {
+            averageNanos = latencyNanos;                    // first sample: nothing to compare to
+            return false;
+        }
+        double threshold = Math.max(floorNanos, average * tolerance);
+        averageNanos = average + WEIGHT * (Math.min(latencyNanos, threshold) - average);
+        return latencyNanos > threshold;
+    }
+}
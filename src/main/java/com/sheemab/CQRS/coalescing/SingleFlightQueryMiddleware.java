@@ -0,0 +1,136 @@
+package com.sheemab.CQRS.coalescing;
+
+
+import com.sheemab.CQRS.QueryBus.QueryChain;
+import com.sheemab.CQRS.QueryBus.QueryMiddleware;
+import com.sheemab.CQRS.config.QueryCoalescingProperties;
+import com.sheemab.CQRS.config.ReplicaRouting;
+import com.sheemab.CQRS.query.CoalescedQuery;
+import com.sheemab.CQRS.query.Query;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * MIDDLEWARE — single flight: identical queries running at the same time
+ * share one execution.
+ *
+ * The first CoalescedQuery for a key (the query's equals(), plus whether
+ * the caller must read from the primary) runs; every identical query that
+ * arrives while it's running waits for it and gets the same result, or the
+ * same exception. Once it's done the key is free again, so nothing is
+ * cached here: a query that arrives after the execution finished runs
+ * again. Database load then follows the number of distinct keys in flight,
+ * not the number of concurrent requests for them.
+ *
+ * A waiter gives up after maxWait and runs the query itself, so a stuck
+ * execution holds up its followers for at most that long.
+ *
+ * Metrics: cqrs.query.coalesced{query} counts queries that shared another
+ * one's execution, cqrs.query.coalescing.timeouts{query} those that gave
+ * up waiting, cqrs.query.inflight.keys the keys executing now.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@ConditionalOnProperty(name = "cqrs.query.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SingleFlightQueryMiddleware implements QueryMiddleware {
+
+    private final QueryCoalescingProperties                   properties;
+    private final MeterRegistry                               meterRegistry;
+    private final Map<Key, CompletableFuture<Object>>         inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlightQueryMiddleware(QueryCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties    = properties;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("cqrs.query.inflight.keys", inFlight, Map::size)
+                .description("Distinct coalesced queries executing now")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> queryType) {
+        return CoalescedQuery.class.isAssignableFrom(queryType);
+    }
+
+    @Override
+    public Object handle(Query<?> query, QueryChain next) {
+        Key key = new Key(query, ReplicaRouting.isPrimaryForced());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+
+        return running == null
+                ? lead(key, flight, query, next)
+                : follow(running, query, next);
+    }
+
+    // ── The first caller runs the query and publishes the outcome ────────────
+
+    private Object lead(Key key, CompletableFuture<Object> flight, Query<?> query, QueryChain next) {
+        try {
+            Object result = next.proceed(query);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // ── The others wait for it ────────────────────────────────────────────────
+
+    private Object follow(CompletableFuture<Object> running, Query<?> query, QueryChain next) {
+        try {
+            Object result = running.get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            counter("cqrs.query.coalesced", "Queries answered by an identical query's execution", query)
+                    .increment();
+            return result;
+        } catch (ExecutionException ex) {
+            counter("cqrs.query.coalesced", "Queries answered by an identical query's execution", query)
+                    .increment();
+            throw rethrow(ex.getCause());
+        } catch (TimeoutException ex) {
+            counter("cqrs.query.coalescing.timeouts", "Queries that stopped waiting and ran themselves", query)
+                    .increment();
+            log.debug("{} waited {} for an identical query, running it separately",
+                    query.getClass().getSimpleName(), properties.getMaxWait());
+            return next.proceed(query);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + query.getClass().getSimpleName(), ex);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return (RuntimeException) cause;          // lead() only publishes these two
+    }
+
+    private Counter counter(String name, String description, Query<?> query) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("query", query.getClass().getSimpleName())
+                .register(meterRegistry);
+    }
+
+    // Reads forced to the primary (read-your-writes) don't share a replica read
+    private record Key(Query<?> query, boolean primary) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.sheemab.CQRS.command;
+
+
+
+import com.sheemab.CQRS.command_response.BulkItemResult;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * COMMAND — represents the INTENT to create or update ONE CHUNK of products
+ * in a single transaction (e.g. a slice of the nightly supplier feed).
+ *
+ * Products are identified by name + category, the same business key the
+ * duplicate rule uses: an existing match is updated, anything else is created.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpsertProductsCommand implements Command<List<BulkItemResult>>, IdempotentCommand {
+
+    @NotEmpty(message = "At least one product is required")
+    private List<@Valid CreateProductCommand> items;
+
+    private String idempotencyKey;         // per chunk: "<header>#<chunk index>"
+}
@@ -0,0 +1,13 @@
+package com.sheemab.CQRS.command;
+
+
+
+/**
+ * Marker for every command.
+ *
+ * R is the minimal acknowledgment the handler hands back to the caller
+ * (e.g. the new ID), or Void when there is nothing to return.
+ * The CommandBus uses the concrete class to find the one handler for it.
+ */
+public interface Command<R> {
+}
@@ -23,7 +23,7 @@ import java.math.BigDecimal;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class CreateProductCommand {
+public class CreateProductCommand implements Command<String>, IdempotentCommand {
 
     @NotBlank(message = "Product name is required")
     private String name;
@@ -40,4 +40,6 @@ public class CreateProductCommand {
     private Integer stock;
 
     private String description;
+
+    private String idempotencyKey;         // optional, from the Idempotency-Key header
 }
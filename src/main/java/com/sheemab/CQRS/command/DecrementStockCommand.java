@@ -0,0 +1,29 @@
+package com.sheemab.CQRS.command;
+
+
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * COMMAND — represents the INTENT to take units off stock for good.
+ *
+ * Either productId + quantity (a direct sale), or reservationId (checkout
+ * of a reservation — its units already left stock, the hold just ends).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecrementStockCommand implements Command<Void>, RetryableCommand {
+
+    private String productId;
+
+    @Positive(message = "Quantity must be greater than zero")
+    private Integer quantity;
+
+    private String reservationId;
+}
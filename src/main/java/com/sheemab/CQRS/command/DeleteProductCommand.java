@@ -15,7 +15,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class DeleteProductCommand {
+public class DeleteProductCommand implements Command<Void> {
 
     @NotBlank(message = "Product ID is required")
     private String productId;
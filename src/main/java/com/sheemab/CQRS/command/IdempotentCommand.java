@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.command;
+
+
+/**
+ * A command the client may retry safely by sending an Idempotency-Key.
+ *
+ * A null key means "not idempotent" — the command simply runs.
+ * With a key, IdempotencyMiddleware runs it at most once per key and
+ * answers repeats with the stored result.
+ */
+public interface IdempotentCommand {
+
+    String getIdempotencyKey();
+}
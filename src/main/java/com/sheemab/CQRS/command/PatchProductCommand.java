@@ -0,0 +1,44 @@
+package com.sheemab.CQRS.command;
+
+
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * COMMAND — represents the INTENT to change some fields of a product.
+ * A null field is left as it is.
+ *
+ * Retryable: it sets values rather than deriving them from what the client
+ * last saw, so running it again on a newer version gives the same result.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatchProductCommand implements Command<Void>, RetryableCommand {
+
+    @NotBlank(message = "Product ID is required")
+    private String productId;
+
+    @Pattern(regexp = ".*\\S.*", message = "Product name must not be blank")
+    private String name;
+
+    @Pattern(regexp = ".*\\S.*", message = "Category must not be blank")
+    private String category;
+
+    @Positive(message = "Price must be greater than zero")
+    private BigDecimal price;
+
+    @Positive(message = "Stock must be greater than zero")
+    private Integer stock;
+
+    private String description;
+}
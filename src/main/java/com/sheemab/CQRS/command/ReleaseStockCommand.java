@@ -0,0 +1,23 @@
+package com.sheemab.CQRS.command;
+
+
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * COMMAND — represents the INTENT to cancel a reservation and put its
+ * units back on stock.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReleaseStockCommand implements Command<Void>, RetryableCommand {
+
+    @NotBlank(message = "Reservation ID is required")
+    private String reservationId;
+}
@@ -0,0 +1,12 @@
+package com.sheemab.CQRS.command;
+
+
+/**
+ * A command that may simply run again when it loses a race with a
+ * concurrent update (see ConflictRetryMiddleware).
+ *
+ * Only for commands whose handler re-reads the current state on every
+ * attempt and whose outcome doesn't depend on a state the client saw.
+ */
+public interface RetryableCommand {
+}
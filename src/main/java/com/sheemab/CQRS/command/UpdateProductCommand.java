@@ -19,7 +19,7 @@ import java.math.BigDecimal;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class UpdateProductCommand {
+public class UpdateProductCommand implements Command<Void> {
 
     @NotBlank(message = "Product ID is required")
     private String productId;
@@ -4,6 +4,7 @@ package com.sheemab.CQRS.command_entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -20,15 +21,27 @@ import java.time.LocalDateTime;
  *   They are kept separate intentionally:
  *   - Write model is normalized, has business rules, domain logic
  *   - Read model is denormalized, flat, optimized for fast queries
+ *
+ * @DynamicUpdate: UPDATEs list only the columns that changed (plus version
+ * and updated_at), so a price change doesn't rewrite the TEXT description.
  */
 @Entity
-@Table(name = "products")
+@Table(
+        name = "products",
+        indexes = {
+                // Duplicate check on create and the set-based bulk lookup
+                @Index(name = "idx_products_name_category", columnList = "name, category")
+        }
+)
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+    // UUIDs are generated in memory before the INSERT, so Hibernate can
+    // batch inserts (an IDENTITY column would force one round trip per row)
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -75,6 +88,16 @@ public class Product {
         this.description = description;
     }
 
+    // Partial update: null leaves a field as it is
+    public void patch(String name, String category,
+                      BigDecimal price, Integer stock, String description) {
+        if (name != null)        this.name        = name;
+        if (category != null)    this.category    = category;
+        if (price != null)       this.price       = price;
+        if (stock != null)       this.stock       = stock;
+        if (description != null) this.description = description;
+    }
+
     public void deactivate() {
         this.active = false;
     }
@@ -0,0 +1,163 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.BulkUpsertProductsCommand;
+import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.command_response.BulkItemResult;
+import com.sheemab.CQRS.command_response.BulkItemResult.Status;
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.repository.ProductWriteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * COMMAND HANDLER — handles BulkUpsertProductsCommand.
+ *
+ * Compared with dispatching N CreateProductCommands:
+ *   1. ONE set-based lookup finds every product with a name + category in
+ *      the chunk, instead of one existsByNameAndCategory round trip per
+ *      item. The duplicate rule is the same as CreateProductCommandHandler:
+ *      a soft-deleted product still owns its name + category, so the item
+ *      is reported DUPLICATE rather than created a second time.
+ *   2. New products are inserted with saveAll and existing ones updated via
+ *      dirty checking; Hibernate JDBC batching (hibernate.jdbc.batch_size)
+ *      turns both into a handful of batched statements
+ *   3. ONE flush at the end populates the timestamps, then the domain
+ *      events for the whole chunk are published together; their outbox
+ *      rows are batch-inserted at commit
+ *
+ * The whole chunk is one transaction: it commits or rolls back as a unit.
+ * State-based write model only — not registered in event-sourced mode.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BulkUpsertProductsCommandHandler implements CommandHandler<BulkUpsertProductsCommand, List<BulkItemResult>> {
+
+    private final ProductWriteRepository writeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public List<BulkItemResult> handle(BulkUpsertProductsCommand command) {
+        List<CreateProductCommand> items = command.getItems();
+        log.info("Handling BulkUpsertProductsCommand: items={}", items.size());
+
+        // ── Set-based lookup of existing products ─────────────────────────────
+        Set<String> names      = new HashSet<>();
+        Set<String> categories = new HashSet<>();
+        for (CreateProductCommand item : items) {
+            names.add(item.getName());
+            categories.add(item.getCategory());
+        }
+
+        Map<BusinessKey, Product> existing = new HashMap<>();
+        for (Product product : writeRepository.findByNameInAndCategoryIn(names, categories)) {
+            // Prefer a live product if older data holds a live and a deleted one
+            existing.merge(new BusinessKey(product.getName(), product.getCategory()), product,
+                    (kept, other) -> kept.isActive() || !other.isActive() ? kept : other);
+        }
+
+        // ── Apply each item: update, create, or report duplicate ──────────────
+        List<Product>    touched  = new ArrayList<>(items.size());
+        List<Status>     outcomes = new ArrayList<>(items.size());
+        List<String>     messages = new ArrayList<>(items.size());
+        List<Product>    inserts  = new ArrayList<>();
+        Set<BusinessKey> seen     = new HashSet<>();
+
+        for (CreateProductCommand item : items) {
+            BusinessKey key = new BusinessKey(item.getName(), item.getCategory());
+
+            if (!seen.add(key)) {
+                touched.add(null);
+                outcomes.add(Status.DUPLICATE);
+                messages.add("Same name and category appears earlier in this request");
+                continue;
+            }
+
+            Product product = existing.get(key);
+            if (product != null && !product.isActive()) {
+                touched.add(null);
+                outcomes.add(Status.DUPLICATE);
+                messages.add("Product '%s' already exists in category '%s' (deleted)"
+                        .formatted(item.getName(), item.getCategory()));
+                continue;
+            }
+            messages.add(null);
+
+            if (product != null) {
+                product.update(item.getName(), item.getCategory(),
+                        item.getPrice(), item.getStock(), item.getDescription());
+                outcomes.add(Status.UPDATED);
+            } else {
+                product = Product.builder()
+                        .name(item.getName())
+                        .category(item.getCategory())
+                        .price(item.getPrice())
+                        .stock(item.getStock())
+                        .description(item.getDescription())
+                        .build();
+                inserts.add(product);
+                outcomes.add(Status.CREATED);
+            }
+            touched.add(product);
+        }
+
+        // ── Persist the chunk in batches, one flush ───────────────────────────
+        writeRepository.saveAll(inserts);
+        writeRepository.flush();
+
+        // ── Publish events + build per-item results ───────────────────────────
+        List<BulkItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            CreateProductCommand item    = items.get(i);
+            Product              product = touched.get(i);
+            Status               status  = outcomes.get(i);
+
+            switch (status) {
+                case CREATED -> eventPublisher.publishEvent(new ProductCreatedEvent(
+                        product.getId(), product.getName(), product.getCategory(),
+                        product.getPrice(), product.getStock(), product.getDescription(),
+                        product.getCreatedAt()));
+                case UPDATED -> eventPublisher.publishEvent(new ProductUpdatedEvent(
+                        product.getId(), product.getName(), product.getCategory(),
+                        product.getPrice(), product.getStock(), product.getDescription(),
+                        product.getUpdatedAt()));
+                default -> { }
+            }
+
+            results.add(BulkItemResult.builder()
+                    .productId(product != null ? product.getId() : null)
+                    .name(item.getName())
+                    .category(item.getCategory())
+                    .status(status)
+                    .message(messages.get(i))
+                    .build());
+        }
+
+        log.info("BulkUpsertProductsCommand done: created={}, updated={}, duplicates={}",
+                Collections.frequency(outcomes, Status.CREATED),
+                Collections.frequency(outcomes, Status.UPDATED),
+                Collections.frequency(outcomes, Status.DUPLICATE));
+
+        return results;
+    }
+
+    private record BusinessKey(String name, String category) {
+    }
+}
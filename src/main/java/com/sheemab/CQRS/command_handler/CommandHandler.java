@@ -0,0 +1,13 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.Command;
+
+/**
+ * Contract for every command handler. Any Spring bean implementing it is
+ * registered with the CommandBus at startup under its command type C.
+ */
+public interface CommandHandler<C extends Command<R>, R> {
+
+    R handle(C command);
+}
@@ -10,6 +10,7 @@ import com.sheemab.CQRS.exception.DuplicateProductException;
 import com.sheemab.CQRS.repository.ProductWriteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,13 +31,15 @@ import org.springframework.transaction.annotation.Transactional;
  * One handler = one command. Never mix multiple commands in one handler.
  */
 @Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class CreateProductCommandHandler {
+public class CreateProductCommandHandler implements CommandHandler<CreateProductCommand, String> {
 
     private final ProductWriteRepository writeRepository;
     private final ApplicationEventPublisher eventPublisher;
 
+    @Override
     @Transactional
     public String handle(CreateProductCommand command) {
         log.info("Handling CreateProductCommand: name={}, category={}",
@@ -0,0 +1,64 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.DecrementStockCommand;
+import com.sheemab.CQRS.exception.ReservationNotFoundException;
+import com.sheemab.CQRS.repository.StockReservationRepository;
+import com.sheemab.CQRS.stock.HotStockCounters;
+import com.sheemab.CQRS.stock.StockLedger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * COMMAND HANDLER — handles DecrementStockCommand.
+ *
+ * Three paths:
+ *   reservationId  — the reservation is settled: its units already left
+ *                    stock, so the row is deleted and stock is untouched
+ *   hot product    — served from HotStockCounters, usually without a
+ *                    transaction or a connection at all
+ *   other products — one conditional UPDATE through StockLedger
+ *
+ * Transactions are opened per path rather than with @Transactional, so
+ * the hot path doesn't pay for one it doesn't use.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DecrementStockCommandHandler implements CommandHandler<DecrementStockCommand, Void> {
+
+    private final StockLedger                stockLedger;
+    private final StockReservationRepository reservationRepository;
+    private final HotStockCounters           hotCounters;
+    private final TransactionTemplate        transactions;
+    private final ApplicationEventPublisher  eventPublisher;
+
+    @Override
+    public Void handle(DecrementStockCommand command) {
+        if (command.getReservationId() != null) {
+            log.debug("Handling DecrementStockCommand: reservationId={}", command.getReservationId());
+            transactions.executeWithoutResult(status -> reservationRepository.delete(
+                    reservationRepository.findLockedById(command.getReservationId())
+                            .orElseThrow(() -> new ReservationNotFoundException(command.getReservationId()))));
+            return null;
+        }
+
+        if (command.getProductId() == null || command.getQuantity() == null) {
+            throw new IllegalArgumentException("Either reservationId or productId and quantity is required");
+        }
+        log.debug("Handling DecrementStockCommand: productId={}, quantity={}",
+                command.getProductId(), command.getQuantity());
+
+        if (hotCounters.isHot(command.getProductId())) {
+            hotCounters.decrement(command.getProductId(), command.getQuantity());
+            return null;
+        }
+
+        transactions.executeWithoutResult(status -> eventPublisher.publishEvent(
+                stockLedger.adjust(command.getProductId(), -command.getQuantity())));
+        return null;
+    }
+}
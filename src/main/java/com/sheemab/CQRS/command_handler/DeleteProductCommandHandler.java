@@ -8,6 +8,7 @@ import com.sheemab.CQRS.exception.ProductNotFoundException;
 import com.sheemab.CQRS.repository.ProductWriteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,15 +20,17 @@ import org.springframework.transaction.annotation.Transactional;
  * This preserves history and keeps the read model consistent.
  */
 @Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class DeleteProductCommandHandler {
+public class DeleteProductCommandHandler implements CommandHandler<DeleteProductCommand, Void> {
 
     private final ProductWriteRepository writeRepository;
     private final ApplicationEventPublisher eventPublisher;
 
+    @Override
     @Transactional
-    public void handle(DeleteProductCommand command) {
+    public Void handle(DeleteProductCommand command) {
         log.info("Handling DeleteProductCommand: productId={}", command.getProductId());
 
         // ── Load the aggregate ────────────────────────────────────────────────
@@ -36,10 +39,15 @@ public class DeleteProductCommandHandler {
 
         // ── Soft delete via domain method ─────────────────────────────────────
         product.deactivate();
-        writeRepository.save(product);
+        Product saved = writeRepository.saveAndFlush(product);
         log.info("Product deactivated on write side: id={}", command.getProductId());
 
         // ── Publish domain event so read side syncs ───────────────────────────
-        eventPublisher.publishEvent(new ProductDeletedEvent(command.getProductId()));
+        eventPublisher.publishEvent(new ProductDeletedEvent(
+                saved.getId(),
+                saved.getUpdatedAt()
+        ));
+
+        return null;
     }
 }
@@ -0,0 +1,77 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * COMMAND HANDLER — handles CreateProductCommand in event-sourced mode.
+ *
+ * Starts a new stream: ProductCreatedEvent becomes sequence 1 in
+ * product_events. No products row is written.
+ *
+ * The duplicate check is enforced by the write store itself: appending
+ * the ProductCreatedEvent also inserts the product's product_keys row in
+ * the same transaction, and its unique (name, category) constraint lets
+ * only one of two racing creates commit; the other gets
+ * DuplicateProductException (409).
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EventSourcedCreateProductCommandHandler implements CommandHandler<CreateProductCommand, String> {
+
+    private final ProductEventStore eventStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public String handle(CreateProductCommand command) {
+        log.info("Handling CreateProductCommand (event-sourced): name={}, category={}",
+                command.getName(), command.getCategory());
+
+        // ── Build domain aggregate ────────────────────────────────────────────
+        LocalDateTime now = LocalDateTime.now();
+        Product product = Product.builder()
+                .id(UUID.randomUUID().toString())
+                .name(command.getName())
+                .category(command.getCategory())
+                .price(command.getPrice())
+                .stock(command.getStock())
+                .description(command.getDescription())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        // ── Append to the event stream (claims name+category, or 409) ─────────
+        ProductCreatedEvent event = new ProductCreatedEvent(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getStock(),
+                product.getDescription(),
+                product.getCreatedAt()
+        );
+        eventStore.append(product, 0, List.of(event));
+        log.info("Product created in event store: id={}", product.getId());
+
+        // ── Publish domain event so read side syncs ───────────────────────────
+        eventPublisher.publishEvent(event);
+
+        return product.getId();
+    }
+}
@@ -0,0 +1,58 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.DeleteProductCommand;
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * COMMAND HANDLER — handles DeleteProductCommand in event-sourced mode.
+ *
+ * Soft delete, as in the state-based handler: the stream gains a
+ * ProductDeletedEvent and the rebuilt aggregate is inactive from then on.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EventSourcedDeleteProductCommandHandler implements CommandHandler<DeleteProductCommand, Void> {
+
+    private final ProductEventStore eventStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public Void handle(DeleteProductCommand command) {
+        log.info("Handling DeleteProductCommand (event-sourced): productId={}", command.getProductId());
+
+        // ── Rebuild the aggregate ─────────────────────────────────────────────
+        Product product = eventStore.load(command.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException(command.getProductId()));
+        long expectedVersion = product.getVersion();
+
+        // ── Soft delete via domain method ─────────────────────────────────────
+        product.deactivate();
+        product.setUpdatedAt(LocalDateTime.now());
+
+        // ── Append to the event stream ────────────────────────────────────────
+        ProductDeletedEvent event = new ProductDeletedEvent(product.getId(), product.getUpdatedAt());
+        eventStore.append(product, expectedVersion, List.of(event));
+        log.info("Product deactivated in event store: id={}", product.getId());
+
+        // ── Publish domain event so read side syncs ───────────────────────────
+        eventPublisher.publishEvent(event);
+
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.PatchProductCommand;
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * COMMAND HANDLER — handles PatchProductCommand in event-sourced mode.
+ *
+ * Appends a ProductPatchedEvent holding only the fields that change, so the
+ * stream (and the projection) stores a delta rather than the whole product.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EventSourcedPatchProductCommandHandler implements CommandHandler<PatchProductCommand, Void> {
+
+    private final ProductEventStore eventStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public Void handle(PatchProductCommand command) {
+        log.info("Handling PatchProductCommand (event-sourced): productId={}", command.getProductId());
+
+        // ── Rebuild the aggregate ─────────────────────────────────────────────
+        Product product = eventStore.load(command.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException(command.getProductId()));
+        long expectedVersion = product.getVersion();
+
+        // ── Keep only the fields that really change ───────────────────────────
+        String     name        = changed(command.getName(), product.getName());
+        String     category    = changed(command.getCategory(), product.getCategory());
+        BigDecimal price       = changed(command.getPrice(), product.getPrice());
+        Integer    stock       = changed(command.getStock(), product.getStock());
+        String     description = changed(command.getDescription(), product.getDescription());
+
+        if (name == null && category == null && price == null && stock == null && description == null) {
+            log.info("Patch changes nothing: id={}", product.getId());
+            return null;
+        }
+
+        // ── Apply change via domain method ────────────────────────────────────
+        LocalDateTime previousUpdatedAt = product.getUpdatedAt();
+        product.patch(name, category, price, stock, description);
+        LocalDateTime now = LocalDateTime.now();
+        product.setUpdatedAt(now.isAfter(previousUpdatedAt) ? now : previousUpdatedAt.plusNanos(1_000));
+
+        // ── Append to the event stream ────────────────────────────────────────
+        ProductPatchedEvent event = new ProductPatchedEvent(
+                product.getId(),
+                name,
+                category,
+                price,
+                stock,
+                description,
+                previousUpdatedAt,
+                product.getUpdatedAt()
+        );
+        eventStore.append(product, expectedVersion, List.of(event));
+        log.info("Product patched in event store: id={}, version={}", product.getId(), product.getVersion());
+
+        // ── Publish domain event so read side syncs ───────────────────────────
+        eventPublisher.publishEvent(event);
+
+        return null;
+    }
+
+    private static <T> T changed(T requested, T current) {
+        return requested != null && !Objects.equals(requested, current) ? requested : null;
+    }
+
+    // 19.9 and 19.90 are the same price
+    private static BigDecimal changed(BigDecimal requested, BigDecimal current) {
+        return requested != null && (current == null || requested.compareTo(current) != 0) ? requested : null;
+    }
+}
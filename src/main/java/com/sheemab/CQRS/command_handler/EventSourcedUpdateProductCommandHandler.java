@@ -0,0 +1,72 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.UpdateProductCommand;
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * COMMAND HANDLER — handles UpdateProductCommand in event-sourced mode.
+ *
+ * Rebuilds the aggregate from its snapshot + later events, applies the
+ * change, and appends ProductUpdatedEvent at the next sequence.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EventSourcedUpdateProductCommandHandler implements CommandHandler<UpdateProductCommand, Void> {
+
+    private final ProductEventStore eventStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public Void handle(UpdateProductCommand command) {
+        log.info("Handling UpdateProductCommand (event-sourced): productId={}", command.getProductId());
+
+        // ── Rebuild the aggregate ─────────────────────────────────────────────
+        Product product = eventStore.load(command.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException(command.getProductId()));
+        long expectedVersion = product.getVersion();
+
+        // ── Apply change via domain method ────────────────────────────────────
+        product.update(
+                command.getName(),
+                command.getCategory(),
+                command.getPrice(),
+                command.getStock(),
+                command.getDescription()
+        );
+        product.setUpdatedAt(LocalDateTime.now());
+
+        // ── Append to the event stream ────────────────────────────────────────
+        ProductUpdatedEvent event = new ProductUpdatedEvent(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getStock(),
+                product.getDescription(),
+                product.getUpdatedAt()
+        );
+        eventStore.append(product, expectedVersion, List.of(event));
+        log.info("Product updated in event store: id={}, version={}", product.getId(), product.getVersion());
+
+        // ── Publish domain event so read side syncs ───────────────────────────
+        eventPublisher.publishEvent(event);
+
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.PatchProductCommand;
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import com.sheemab.CQRS.repository.ProductWriteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * COMMAND HANDLER — handles PatchProductCommand.
+ *
+ * Only fields whose value actually changes go into the UPDATE (Product is
+ * @DynamicUpdate) and into the ProductPatchedEvent. A patch that changes
+ * nothing writes nothing and publishes nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PatchProductCommandHandler implements CommandHandler<PatchProductCommand, Void> {
+
+    private final ProductWriteRepository writeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public Void handle(PatchProductCommand command) {
+        log.info("Handling PatchProductCommand: productId={}", command.getProductId());
+
+        // ── Load the aggregate ────────────────────────────────────────────────
+        Product product = writeRepository.findById(command.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException(command.getProductId()));
+
+        // ── Keep only the fields that really change ───────────────────────────
+        String     name        = changed(command.getName(), product.getName());
+        String     category    = changed(command.getCategory(), product.getCategory());
+        BigDecimal price       = changed(command.getPrice(), product.getPrice());
+        Integer    stock       = changed(command.getStock(), product.getStock());
+        String     description = changed(command.getDescription(), product.getDescription());
+
+        if (name == null && category == null && price == null && stock == null && description == null) {
+            log.info("Patch changes nothing: id={}", product.getId());
+            return null;
+        }
+
+        // ── Apply change via domain method, then persist the dirty columns ────
+        LocalDateTime previousUpdatedAt = product.getUpdatedAt();
+        product.patch(name, category, price, stock, description);
+        Product saved = writeRepository.saveAndFlush(product);
+        log.info("Product patched on write side: id={}", saved.getId());
+
+        // ── Publish the delta so read side syncs ──────────────────────────────
+        eventPublisher.publishEvent(new ProductPatchedEvent(
+                saved.getId(),
+                name,
+                category,
+                price,
+                stock,
+                description,
+                previousUpdatedAt,
+                saved.getUpdatedAt()
+        ));
+
+        return null;
+    }
+
+    private static <T> T changed(T requested, T current) {
+        return requested != null && !Objects.equals(requested, current) ? requested : null;
+    }
+
+    // 19.9 and 19.90 are the same price
+    private static BigDecimal changed(BigDecimal requested, BigDecimal current) {
+        return requested != null && (current == null || requested.compareTo(current) != 0) ? requested : null;
+    }
+}
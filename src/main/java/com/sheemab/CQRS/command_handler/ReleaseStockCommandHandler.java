@@ -0,0 +1,47 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.ReleaseStockCommand;
+import com.sheemab.CQRS.exception.ReservationNotFoundException;
+import com.sheemab.CQRS.repository.StockReservationRepository;
+import com.sheemab.CQRS.stock.StockLedger;
+import com.sheemab.CQRS.stock.StockReservation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * COMMAND HANDLER — handles ReleaseStockCommand.
+ *
+ * Deletes the (locked) reservation and puts its units back on stock. A
+ * product deleted since the reservation has no stock to return them to:
+ * the reservation is still deleted, and nothing else changes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReleaseStockCommandHandler implements CommandHandler<ReleaseStockCommand, Void> {
+
+    private final StockLedger                stockLedger;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher  eventPublisher;
+
+    @Override
+    @Transactional
+    public Void handle(ReleaseStockCommand command) {
+        log.info("Handling ReleaseStockCommand: reservationId={}", command.getReservationId());
+
+        StockReservation reservation = reservationRepository.findLockedById(command.getReservationId())
+                .orElseThrow(() -> new ReservationNotFoundException(command.getReservationId()));
+        reservationRepository.delete(reservation);
+
+        stockLedger.restock(reservation.getProductId(), reservation.getQuantity())
+                .ifPresentOrElse(eventPublisher::publishEvent,
+                        () -> log.info("Product {} was deleted; released reservation {} without returning stock",
+                                reservation.getProductId(), reservation.getId()));
+
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sheemab.CQRS.command_handler;
+
+
+import com.sheemab.CQRS.command.ReserveStockCommand;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.repository.StockReservationRepository;
+import com.sheemab.CQRS.stock.StockLedger;
+import com.sheemab.CQRS.stock.StockReservation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * COMMAND HANDLER — handles ReserveStockCommand.
+ *
+ * Takes the units off stock and records the reservation in one transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReserveStockCommandHandler implements CommandHandler<ReserveStockCommand, String> {
+
+    private final StockLedger                stockLedger;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher  eventPublisher;
+
+    @Override
+    @Transactional
+    public String handle(ReserveStockCommand command) {
+        log.info("Handling ReserveStockCommand: productId={}, quantity={}",
+                command.getProductId(), command.getQuantity());
+
+        // ── Conditional decrement: fails if the stock isn't there ─────────────
+        ProductUpdatedEvent event = stockLedger.adjust(command.getProductId(), -command.getQuantity());
+
+        StockReservation reservation = reservationRepository.save(StockReservation.builder()
+                .productId(command.getProductId())
+                .quantity(command.getQuantity())
+                .build());
+
+        // ── Publish domain event so read side syncs ───────────────────────────
+        eventPublisher.publishEvent(event);
+
+        return reservation.getId();
+    }
+}
@@ -8,6 +8,7 @@ import com.sheemab.CQRS.exception.ProductNotFoundException;
 import com.sheemab.CQRS.repository.ProductWriteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,15 +17,17 @@ import org.springframework.transaction.annotation.Transactional;
  * COMMAND HANDLER — handles UpdateProductCommand.
  */
 @Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class UpdateProductCommandHandler {
+public class UpdateProductCommandHandler implements CommandHandler<UpdateProductCommand, Void> {
 
     private final ProductWriteRepository writeRepository;
     private final ApplicationEventPublisher eventPublisher;
 
+    @Override
     @Transactional
-    public void handle(UpdateProductCommand command) {
+    public Void handle(UpdateProductCommand command) {
         log.info("Handling UpdateProductCommand: productId={}", command.getProductId());
 
         // ── Load the aggregate ────────────────────────────────────────────────
@@ -40,8 +43,8 @@ public class UpdateProductCommandHandler {
                 command.getDescription()
         );
 
-        // ── Persist ───────────────────────────────────────────────────────────
-        Product saved = writeRepository.save(product);
+        // ── Persist (flush so @UpdateTimestamp is populated for the event) ────
+        Product saved = writeRepository.saveAndFlush(product);
         log.info("Product updated on write side: id={}", saved.getId());
 
         // ── Publish domain event so read side syncs ───────────────────────────
@@ -54,5 +57,7 @@ public class UpdateProductCommandHandler {
                 saved.getDescription(),
                 saved.getUpdatedAt()
         ));
+
+        return null;
     }
 }
@@ -0,0 +1,34 @@
+package com.sheemab.CQRS.command_response;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * COMMAND RESPONSE — outcome of one item of a bulk command.
+ *
+ * Results are returned in the same order as the request items,
+ * so the client can match them up by position.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+
+    public enum Status {
+        CREATED,        // new product inserted
+        UPDATED,        // active product with this name + category updated
+        DUPLICATE,      // same name + category appeared earlier in the request,
+                        // or belongs to a deleted product (see message)
+        FAILED          // the chunk containing this item was rolled back
+    }
+
+    private String productId;
+    private String name;
+    private String category;
+    private Status status;
+    private String message;
+}
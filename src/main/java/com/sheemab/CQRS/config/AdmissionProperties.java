@@ -0,0 +1,51 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Admission control in front of the command handlers (cqrs.admission.*,
+ * AdmissionControlMiddleware).
+ *
+ *   enabled          — false lets every command straight through
+ *   mode             — STATIC keeps `limit`; AIMD adapts it between
+ *                      minLimit and maxLimit
+ *   limit            — commands executing at once (the start value for AIMD).
+ *                      Around the connection pool size.
+ *   minLimit         — AIMD never goes below this
+ *   maxLimit         — ... nor above this
+ *   latencyTolerance — AIMD: a command slower than this many times its own
+ *                      type's usual latency (or failing for lack of a
+ *                      connection) shrinks the limit by backoffRatio; a fast
+ *                      one at full load grows it by about 1 per `limit`
+ *                      completions. Per type, so long bulk commands don't
+ *                      count as slow against single-row ones.
+ *   latencyThreshold — ... and never a command faster than this
+ *   backoffRatio     — multiplicative decrease, 0 < ratio < 1
+ *   queueCapacity    — commands of ONE type allowed to wait for a slot; the
+ *                      next one is rejected at once (429)
+ *   maxWait          — longest a command waits for a slot before it is
+ *                      rejected (503)
+ *   retryAfter       — the Retry-After sent with both rejections
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.admission")
+public class AdmissionProperties {
+
+    public enum Mode { STATIC, AIMD }
+
+    private boolean  enabled          = true;
+    private Mode     mode             = Mode.AIMD;
+    private int      limit            = 20;
+    private int      minLimit         = 4;
+    private int      maxLimit         = 100;
+    private double   latencyTolerance = 2.0;
+    private Duration latencyThreshold = Duration.ofMillis(250);
+    private double   backoffRatio     = 0.9;
+    private int      queueCapacity    = 200;
+    private Duration maxWait          = Duration.ofMillis(500);
+    private Duration retryAfter       = Duration.ofSeconds(1);
+}
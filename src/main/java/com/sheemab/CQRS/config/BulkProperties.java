@@ -0,0 +1,18 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulk command settings (cqrs.bulk.*).
+ *
+ *   chunkSize — products per BulkUpsertProductsCommand / transaction.
+ *               Keep it a multiple of hibernate.jdbc.batch_size.
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.bulk")
+public class BulkProperties {
+
+    private int chunkSize = 500;
+}
@@ -0,0 +1,29 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cross-instance eviction of the read-side caches (cqrs.cache.invalidation.*,
+ * ViewChangeFeed).
+ *
+ *   enabled      — off: each instance only evicts what it projected itself
+ *                  (a single instance, or staleness up to the caches' ttl)
+ *   pollInterval — how often product_view_changes is read; the longest an
+ *                  instance serves a page another instance has changed
+ *   lookback     — how long a projection transaction may take to commit
+ *                  after it recorded its change; rows are re-read this far back
+ *   retention    — how long recorded changes are kept before purging
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.cache.invalidation")
+public class CacheInvalidationProperties {
+
+    private boolean  enabled      = true;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration lookback     = Duration.ofSeconds(10);
+    private Duration retention    = Duration.ofHours(1);
+}
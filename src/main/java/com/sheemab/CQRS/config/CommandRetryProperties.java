@@ -0,0 +1,25 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Retries of commands that lose a concurrent-update race (cqrs.command.retry.*,
+ * ConflictRetryMiddleware).
+ *
+ *   maxAttempts    — attempts in total, the first one included
+ *   initialBackoff — wait before the second attempt; doubles after each one
+ *   maxBackoff     — cap on that wait. Each wait is jittered between half
+ *                    and all of it, so racing commands don't retry in step.
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.command.retry")
+public class CommandRetryProperties {
+
+    private int      maxAttempts    = 5;
+    private Duration initialBackoff = Duration.ofMillis(5);
+    private Duration maxBackoff     = Duration.ofMillis(100);
+}
@@ -0,0 +1,21 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Event-sourced write model settings (cqrs.event-sourcing.*).
+ *
+ *   enabled        — create/update/delete append to product_events instead
+ *                    of saving the products row; the stream is the truth
+ *   snapshotEvery  — write a product_snapshots row every N events, so a
+ *                    load never replays more than N - 1 events
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.event-sourcing")
+public class EventSourcingProperties {
+
+    private boolean enabled       = false;
+    private int     snapshotEvery = 50;
+}
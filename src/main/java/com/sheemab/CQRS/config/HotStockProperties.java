@@ -0,0 +1,29 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Hot SKUs whose decrements are served from memory (cqrs.stock.hot.*,
+ * HotStockCounters).
+ *
+ *   productIds    — the hot products; everything else decrements in the database
+ *   stripes       — counters per product, so contending threads CAS on
+ *                   different cache lines instead of one
+ *   batchSize     — units claimed from products.stock per refill (one UPDATE)
+ *   flushInterval — how often claimed but unsold units are returned
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.stock.hot")
+public class HotStockProperties {
+
+    private Set<String> productIds    = new HashSet<>();
+    private int         stripes       = 8;
+    private int         batchSize     = 100;
+    private Duration    flushInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,22 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Idempotency-Key handling for POST commands (cqrs.idempotency.*).
+ *
+ *   ttl            — how long a key and its stored result are remembered;
+ *                    a retry after that runs the command again
+ *   maximumSize    — max keys kept in the in-memory tier (the table has no cap)
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.idempotency")
+public class IdempotencyProperties {
+
+    private Duration ttl         = Duration.ofHours(24);
+    private long     maximumSize = 100_000;
+}
@@ -0,0 +1,31 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transactional outbox settings (cqrs.outbox.*).
+ *
+ *   enabled        — record events in product_outbox and project them via
+ *                    OutboxRelay; false falls back to the in-memory queue
+ *   claimers       — relay threads claiming batches concurrently
+ *   batchSize      — max rows claimed per transaction
+ *   pollInterval   — idle wait when no commit has woken the relay
+ *   retention      — how long processed rows are kept before purging
+ *   maxAttempts    — a row that fails this many times ON ITS OWN is parked
+ *                    (processed_at and error set) so the rows behind it move on
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.outbox")
+public class OutboxProperties {
+
+    private boolean  enabled      = true;
+    private int      claimers     = 2;
+    private int      batchSize    = 500;
+    private Duration pollInterval = Duration.ofMillis(500);
+    private Duration retention    = Duration.ofHours(24);
+    private int      maxAttempts  = 5;
+}
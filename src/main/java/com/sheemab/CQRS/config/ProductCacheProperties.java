@@ -0,0 +1,26 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * L1 cache in front of GetProductByIdQueryHandler (cqrs.cache.product-by-id.*).
+ *
+ *   maximumSize    — max cached ids (positive + negative entries)
+ *   ttl            — expiry of a cached ProductSummary; a safety net, as
+ *                    changes are evicted on every instance (ViewChangeFeed)
+ *   cacheNegative  — remember ids that don't exist, so 404 storms skip the DB
+ *   negativeTtl    — kept short: a "not found" may turn into a product soon
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.cache.product-by-id")
+public class ProductCacheProperties {
+
+    private long     maximumSize   = 100_000;
+    private Duration ttl           = Duration.ofMinutes(10);
+    private boolean  cacheNegative = true;
+    private Duration negativeTtl   = Duration.ofSeconds(5);
+}
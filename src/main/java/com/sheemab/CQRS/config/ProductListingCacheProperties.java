@@ -0,0 +1,26 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Serialized list pages of GET /api/products and /api/products/category/{c}
+ * (cqrs.cache.product-listing.*, ProductListingCache).
+ *
+ *   enabled      — off: every request queries and serializes, as before
+ *   maximumBytes — memory budget, counted in response bytes
+ *   ttl          — safety net only: pages are evicted when the projection,
+ *                  on any instance (ViewChangeFeed), changes what they show
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.cache.product-listing")
+public class ProductListingCacheProperties {
+
+    private boolean  enabled      = true;
+    private DataSize maximumBytes = DataSize.ofMegabytes(64);
+    private Duration ttl          = Duration.ofMinutes(10);
+}
@@ -0,0 +1,45 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the asynchronous projection pipeline (cqrs.projection.*).
+ *
+ *   queueCapacity — max events buffered between commit and projection.
+ *                   When full, committing threads block (backpressure)
+ *                   instead of silently dropping events.
+ *   batchSize     — max events drained and written per flush.
+ *   linger        — how long the worker waits for more events after the
+ *                   first one arrives, trading a little lag for bigger batches.
+ *
+ * Rebuild of product_views (cqrs.projection.rebuild.*, ProjectionRebuilder):
+ *   onStartup     — rebuild once the application is ready
+ *   partitions    — id ranges the source is split into
+ *   parallelism   — partitions replayed at once; each holds a connection
+ *   chunkSize     — rows fetched and written per batch
+ *   catchUpMargin — overlap when re-reading rows changed during the rebuild,
+ *                   covering transactions that stamped updated_at before
+ *                   the rebuild started but committed after
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.projection")
+public class ProjectionProperties {
+
+    private int      queueCapacity = 10_000;
+    private int      batchSize     = 500;
+    private Duration linger        = Duration.ofMillis(20);
+    private Rebuild  rebuild       = new Rebuild();
+
+    @Data
+    public static class Rebuild {
+        private boolean  onStartup     = false;
+        private int      partitions    = 16;
+        private int      parallelism   = 4;
+        private int      chunkSize     = 1_000;
+        private Duration catchUpMargin = Duration.ofMinutes(1);
+    }
+}
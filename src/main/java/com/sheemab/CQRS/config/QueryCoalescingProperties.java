@@ -0,0 +1,23 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Single-flight execution of identical concurrent queries
+ * (cqrs.query.coalescing.*, SingleFlightQueryMiddleware).
+ *
+ *   enabled — off: every query runs on its own, as before
+ *   maxWait — how long a query waits on an identical one already running;
+ *             after that it stops waiting and runs itself
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.query.coalescing")
+public class QueryCoalescingProperties {
+
+    private boolean  enabled = true;
+    private Duration maxWait = Duration.ofSeconds(2);
+}
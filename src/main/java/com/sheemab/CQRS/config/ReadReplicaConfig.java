@@ -0,0 +1,98 @@
+package com.sheemab.CQRS.config;
+
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * READ REPLICA MODE — active when cqrs.datasource.replica.enabled=true.
+ *
+ * With one shared store, replaces Spring Boot's single DataSource with two
+ * Hikari pools, "primary" (spring.datasource.*) and "replica"
+ * (cqrs.datasource.replica.*), behind one LazyConnectionDataSourceProxy
+ * that JPA, JdbcTemplate and the transaction manager all use:
+ *
+ *   - read-write transactions and plain JdbcTemplate calls → primary
+ *   - @Transactional(readOnly = true) → ReplicaDataSource (the query
+ *     handlers and Spring Data finders), with fallback and read-your-writes
+ *
+ * The proxy only fetches the real connection at the first statement, by
+ * which time the transaction has marked it read-only — that's what lets it
+ * pick the pool. Each pool reports its own hikaricp.* meters, and with
+ * virtual threads each is wrapped in its own FairConnectionGate by
+ * VirtualThreadsConfig (hence the DataSource-typed injection points).
+ *
+ * With a separate read store (ReadStoreConfig) the replica replicates the
+ * read store, and the same routing sits in front of readDataSource.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "cqrs.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReadReplicaConfig {
+
+    @Bean
+    HikariDataSource replicaDataSource(ReplicaProperties replica, DataSourceProperties primary) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        return dataSource;
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(ReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties);
+    }
+
+    // ── One shared store: the replica replicates it ──────────────────────────
+    // (with cqrs.read-store.enabled=true, ReadStoreConfig puts the replica
+    // behind the read store instead)
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "cqrs.datasource.replica.enabled", havingValue = "true")
+    @ConditionalOnProperty(name = "cqrs.read-store.enabled", havingValue = "false", matchIfMissing = true)
+    static class SharedStore {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            dataSource.setPoolName("primary");
+            return dataSource;
+        }
+
+        @Bean
+        @Primary
+        LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                 @Qualifier("replicaDataSource") DataSource replica,
+                                                 ReplicaProperties properties,
+                                                 MeterRegistry meterRegistry) {
+            log.info("Read replica on: read-only transactions use {} (fallbackToPrimary={}, readYourWritesWindow={})",
+                    properties.getUrl(), properties.isFallbackToPrimary(), properties.getReadYourWritesWindow());
+
+            LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+            routing.setReadOnlyDataSource(new ReplicaDataSource(replica, primary, properties, meterRegistry));
+            return routing;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sheemab.CQRS.config;
+
+
+/**
+ * Bean names of the query-side store — what every read-side component
+ * (query handlers, projectors, search, rebuild) asks for by qualifier.
+ *
+ * With cqrs.read-store.enabled=true they are separate beans with their own
+ * database, pool and Hibernate settings (ReadStoreConfig). Otherwise they
+ * are aliases of Spring Boot's single DataSource, EntityManagerFactory,
+ * transaction manager and templates (SharedStoreConfig), so the same code
+ * runs in both layouts.
+ */
+public final class ReadStore {
+
+    public static final String DATA_SOURCE            = "readDataSource";
+    public static final String ENTITY_MANAGER_FACTORY = "readEntityManagerFactory";
+    public static final String TRANSACTION_MANAGER    = "readTransactionManager";
+    public static final String JDBC_TEMPLATE          = "readJdbcTemplate";
+    public static final String TRANSACTION_TEMPLATE   = "readTransactionTemplate";
+
+    private ReadStore() {
+    }
+}
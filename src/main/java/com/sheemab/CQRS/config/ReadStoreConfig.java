@@ -0,0 +1,244 @@
+package com.sheemab.CQRS.config;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.StoredEvent;
+import com.sheemab.CQRS.idempotency.IdempotencyRecord;
+import com.sheemab.CQRS.outbox.OutboxEvent;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.repository.CategoryStatsRepository;
+import com.sheemab.CQRS.repository.OutboxRepository;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import com.sheemab.CQRS.repository.ProductWriteRepository;
+import com.sheemab.CQRS.repository.StockReservationRepository;
+import com.sheemab.CQRS.stock.StockReservation;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TWO STORES — active when cqrs.read-store.enabled=true.
+ *
+ * The write model (products, outbox, event store, idempotency keys, stock
+ * reservations) and the read model (product_views, category_stats) get a
+ * persistence unit each:
+ *
+ *                 write store                     read store
+ *   DataSource    dataSource ("write" pool)       readDataSource ("read" pool)
+ *   JPA           entityManagerFactory            readEntityManagerFactory
+ *   transactions  transactionManager              readTransactionManager
+ *   JDBC          jdbcTemplate                    readJdbcTemplate
+ *   tuning        spring.datasource.hikari.*      cqrs.read-store.hikari.*
+ *                 spring.jpa.properties.*         cqrs.read-store.jpa-properties.*
+ *
+ * The write beans keep Spring Boot's names and are @Primary, so command
+ * code is unchanged; read-side code asks for the ReadStore names. Spring
+ * Boot's JPA, JdbcTemplate and TransactionTemplate auto-configuration
+ * backs off once these exist, which is why the write side is declared here
+ * too.
+ *
+ * No transaction spans both stores. The projection commits product_views
+ * in its own read-store transaction; if the write-side step after it (e.g.
+ * marking outbox rows done) fails, the events are delivered again and the
+ * last_updated_at guard makes that harmless.
+ *
+ * With a read replica configured, it replicates the read store and
+ * read-only query transactions go to it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "cqrs.read-store.enabled", havingValue = "true")
+@Slf4j
+public class ReadStoreConfig {
+
+    private static final String NAMING_STRATEGY =
+            "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy";
+
+    // ── Write store ───────────────────────────────────────────────────────────
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("write");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    LocalContainerEntityManagerFactoryBean entityManagerFactory(@Qualifier("dataSource") DataSource dataSource,
+                                                                Environment environment) {
+        Binder binder = Binder.get(environment);
+        Map<String, String> configured = binder
+                .bind("spring.jpa.properties", Bindable.mapOf(String.class, String.class))
+                .orElseGet(Map::of);
+        String ddlAuto = binder.bind("spring.jpa.hibernate.ddl-auto", String.class).orElse(null);
+
+        return persistenceUnit("write", dataSource, hibernateProperties(configured, ddlAuto),
+                Product.class, OutboxEvent.class, StoredEvent.class, IdempotencyRecord.class,
+                StockReservation.class);
+    }
+
+    @Bean
+    @Primary
+    JpaTransactionManager transactionManager(@Qualifier("entityManagerFactory") EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    @Primary
+    JdbcTemplate jdbcTemplate(@Qualifier("dataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    @Primary
+    TransactionTemplate transactionTemplate(@Qualifier("transactionManager") PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    // ── Read store ────────────────────────────────────────────────────────────
+
+    @Bean
+    @ConfigurationProperties("cqrs.read-store.hikari")
+    HikariDataSource readPoolDataSource(ReadStoreProperties properties, DataSourceProperties write) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.getUrl())
+                .username(properties.getUsername() != null ? properties.getUsername() : write.determineUsername())
+                .password(properties.getPassword() != null ? properties.getPassword() : write.determinePassword())
+                .build();
+        dataSource.setPoolName("read");
+        return dataSource;
+    }
+
+    // Lazy: a read-only transaction is routed to the replica (if any) when
+    // it runs its first statement, see ReadReplicaConfig
+    @Bean(ReadStore.DATA_SOURCE)
+    LazyConnectionDataSourceProxy readDataSource(@Qualifier("readPoolDataSource") DataSource pool,
+                                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                                 ReplicaProperties replicaProperties,
+                                                 ReadStoreProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(pool);
+        DataSource replicaPool = replica.getIfAvailable();
+        if (replicaPool != null) {
+            dataSource.setReadOnlyDataSource(
+                    new ReplicaDataSource(replicaPool, pool, replicaProperties, meterRegistry));
+        }
+        log.info("Separate read store on: {} (replica={})", properties.getUrl(), replicaPool != null);
+        return dataSource;
+    }
+
+    @Bean(ReadStore.ENTITY_MANAGER_FACTORY)
+    LocalContainerEntityManagerFactoryBean readEntityManagerFactory(@Qualifier(ReadStore.DATA_SOURCE) DataSource dataSource,
+                                                                    ReadStoreProperties properties,
+                                                                    Environment environment) {
+        String ddlAuto = properties.getDdlAuto() != null
+                ? properties.getDdlAuto()
+                : Binder.get(environment).bind("spring.jpa.hibernate.ddl-auto", String.class).orElse(null);
+
+        return persistenceUnit("read", dataSource, hibernateProperties(properties.getJpaProperties(), ddlAuto),
+                ProductView.class);
+    }
+
+    @Bean(ReadStore.TRANSACTION_MANAGER)
+    JpaTransactionManager readTransactionManager(
+            @Qualifier(ReadStore.ENTITY_MANAGER_FACTORY) EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean(ReadStore.JDBC_TEMPLATE)
+    JdbcTemplate readJdbcTemplate(@Qualifier(ReadStore.DATA_SOURCE) DataSource dataSource,
+                                  ReadStoreProperties properties) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(properties.getFetchSize());
+        return jdbcTemplate;
+    }
+
+    @Bean(ReadStore.TRANSACTION_TEMPLATE)
+    TransactionTemplate readTransactionTemplate(
+            @Qualifier(ReadStore.TRANSACTION_MANAGER) PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    // ── Spring Data repositories, one set per store ───────────────────────────
+    // (the condition is repeated: nested classes are also found by component scan)
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "cqrs.read-store.enabled", havingValue = "true")
+    @EnableJpaRepositories(
+            basePackageClasses = ProductWriteRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { ProductWriteRepository.class, OutboxRepository.class,
+                            StockReservationRepository.class }))
+    static class WriteRepositories {
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "cqrs.read-store.enabled", havingValue = "true")
+    @EnableJpaRepositories(
+            basePackageClasses = ProductReadRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { ProductReadRepository.class, CategoryStatsRepository.class }),
+            entityManagerFactoryRef = ReadStore.ENTITY_MANAGER_FACTORY,
+            transactionManagerRef   = ReadStore.TRANSACTION_MANAGER)
+    static class ReadRepositories {
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    // Entities are picked up from the packages of the given classes
+    private static LocalContainerEntityManagerFactoryBean persistenceUnit(String name, DataSource dataSource,
+                                                                          Map<String, Object> properties,
+                                                                          Class<?>... entities) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setPersistenceUnitName(name);
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(Arrays.stream(entities).map(Class::getPackageName).toArray(String[]::new));
+        factory.setJpaPropertyMap(properties);
+        return factory;
+    }
+
+    // Same table / column naming as Spring Boot's auto-configuration, then the store's own settings
+    private static Map<String, Object> hibernateProperties(Map<String, String> configured, String ddlAuto) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.physical_naming_strategy", NAMING_STRATEGY);
+        if (ddlAuto != null) {
+            properties.put("hibernate.hbm2ddl.auto", ddlAuto);
+        }
+        properties.putAll(configured);
+        return properties;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Separate query-side database (cqrs.read-store.*).
+ *
+ *   enabled         — product_views and category_stats live in their own
+ *                     database with their own EntityManagerFactory and
+ *                     transaction manager; false = one shared store
+ *   url / username /
+ *   password        — read store connection; username and password default
+ *                     to spring.datasource.*
+ *   ddlAuto         — hibernate.hbm2ddl.auto for the read store; null = the
+ *                     same as spring.jpa.hibernate.ddl-auto
+ *   fetchSize       — JDBC fetch size of the read-side JdbcTemplate (-1 = driver default)
+ *   jpaProperties   — Hibernate settings for the read store only, e.g.
+ *                     hibernate.jdbc.fetch_size; spring.jpa.properties.*
+ *                     then applies to the write store alone
+ *
+ * The read pool is tuned under cqrs.read-store.hikari.* (same keys as
+ * spring.datasource.hikari.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.read-store")
+public class ReadStoreProperties {
+
+    private boolean             enabled       = false;
+    private String              url;
+    private String              username;
+    private String              password;
+    private String              ddlAuto;
+    private int                 fetchSize     = -1;
+    private Map<String, String> jpaProperties = new HashMap<>();
+}
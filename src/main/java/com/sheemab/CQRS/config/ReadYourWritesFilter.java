@@ -0,0 +1,82 @@
+package com.sheemab.CQRS.config;
+
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * READ-YOUR-WRITES — keeps a client on the primary right after its own command.
+ *
+ * A command (any non-GET/HEAD request) sets a short-lived cookie holding
+ * the time of the write. While a client's GETs carry a cookie younger than
+ * readYourWritesWindow, their read-only transactions use the primary, so a
+ * create followed by a read never hits a lagging replica. Everyone else
+ * keeps reading from the replica.
+ *
+ * The cookie is stateless (no server-side session), so it works across
+ * instances behind a load balancer.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "cqrs-last-write";
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.windowMillis = properties.getReadYourWritesWindow().toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return windowMillis <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            // Set before the handler runs — the response may be committed after it
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.ceilDiv(windowMillis, 1000));
+            response.addCookie(cookie);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!wroteRecently(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Boolean previous = ReplicaRouting.forcePrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.restore(previous);
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            // A write stamped by an instance whose clock runs ahead counts as recent
+            long age = System.currentTimeMillis() - Long.parseLong(cookie.getValue());
+            return age < windowMillis;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sheemab.CQRS.config;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The DataSource read-only transactions get their connection from.
+ *
+ * Hands out replica connections, except:
+ *   1. ReplicaRouting.isPrimaryForced() — read-your-writes and other callers
+ *      that must not see replica lag get a primary connection.
+ *   2. The replica failed recently — with fallbackToPrimary, reads go to the
+ *      primary for retryAfter, so a dead replica costs one connection
+ *      timeout per retryAfter, not one per query. Without it, the error
+ *      reaches the caller.
+ *
+ * cqrs.datasource.reads{target} counts which side served each read-only
+ * connection; the pools themselves report as hikaricp.*{pool=primary|replica}.
+ */
+@Slf4j
+public class ReplicaDataSource extends DelegatingDataSource {
+
+    private final DataSource        primary;
+    private final ReplicaProperties properties;
+    private final Counter           replicaReads;
+    private final Counter           primaryReads;
+    private final Counter           fallbacks;
+
+    private volatile long replicaDownUntil;           // System.nanoTime(); 0 = healthy
+
+    public ReplicaDataSource(DataSource replica, DataSource primary,
+                             ReplicaProperties properties, MeterRegistry meterRegistry) {
+        super(replica);
+        this.primary    = primary;
+        this.properties = properties;
+
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryReads = readCounter(meterRegistry, "primary");
+        this.fallbacks = Counter.builder("cqrs.datasource.replica.fallbacks")
+                .description("Times the replica could not serve a connection and reads moved to the primary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReplicaRouting.isPrimaryForced() || replicaDown()) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = super.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException ex) {
+            if (!properties.isFallbackToPrimary()) {
+                throw ex;
+            }
+            replicaDownUntil = System.nanoTime() + properties.getRetryAfter().toNanos();
+            fallbacks.increment();
+            log.warn("Replica unavailable, reading from the primary for the next {}: {}",
+                    properties.getRetryAfter(), ex.getMessage());
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    private boolean replicaDown() {
+        long downUntil = replicaDownUntil;
+        return downUntil != 0 && System.nanoTime() - downUntil < 0;
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("cqrs.datasource.reads")
+                .description("Connections handed to read-only transactions, by the database serving them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
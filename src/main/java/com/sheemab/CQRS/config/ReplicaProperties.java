@@ -0,0 +1,38 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read replica for read-only transactions (cqrs.datasource.replica.*).
+ *
+ *   enabled              — route @Transactional(readOnly = true) work to the replica
+ *   url / username /
+ *   password             — replica connection; username and password default
+ *                          to spring.datasource.*
+ *   maximumPoolSize      — size of the separate "replica" Hikari pool
+ *   connectionTimeout    — kept short: a replica that can't hand out a
+ *                          connection quickly is treated as down
+ *   fallbackToPrimary    — read from the primary while the replica is down,
+ *                          instead of failing the query
+ *   retryAfter           — how long a failed replica is skipped before it is tried again
+ *   readYourWritesWindow — after a client's command, its reads go to the primary
+ *                          for this long (should exceed the replica lag); 0 = off
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean  enabled              = false;
+    private String   url;
+    private String   username;
+    private String   password;
+    private int      maximumPoolSize      = 20;
+    private Duration connectionTimeout    = Duration.ofSeconds(1);
+    private boolean  fallbackToPrimary    = true;
+    private Duration retryAfter           = Duration.ofSeconds(10);
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
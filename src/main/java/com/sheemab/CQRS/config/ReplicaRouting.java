@@ -0,0 +1,49 @@
+package com.sheemab.CQRS.config;
+
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of read-replica routing.
+ *
+ * Read-only transactions normally read from the replica (ReplicaDataSource).
+ * Inside onPrimary(...) — or a request marked by ReadYourWritesFilter —
+ * they read from the primary instead, for callers that must not see
+ * replica lag. Without a replica configured this is a no-op.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // For callers that can't wrap their work in a Supplier (servlet filters)
+    static Boolean forcePrimary() {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY_FORCED.remove();
+        } else {
+            PRIMARY_FORCED.set(previous);
+        }
+    }
+}
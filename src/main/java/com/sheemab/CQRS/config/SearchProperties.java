@@ -0,0 +1,27 @@
+package com.sheemab.CQRS.config;
+
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Full-text search settings (cqrs.search.*, ProductSearchRepository).
+ *
+ *   maxMatches       — most matching rows one search ranks and counts for
+ *                      facets. Up to this many matches, ranking and facet
+ *                      counts are exact; a broader search ranks and counts
+ *                      only the first maxMatches and says so with
+ *                      matchesCapped.
+ *   installOnStartup — build the search column and index at startup
+ *                      (SearchIndexInstaller). Off: they are installed via
+ *                      /actuator/searchindex, because adding the column
+ *                      rewrites product_views under an exclusive lock.
+ *                      Meant for tests and small development databases.
+ */
+@Data
+@ConfigurationProperties(prefix = "cqrs.search")
+public class SearchProperties {
+
+    private int     maxMatches       = 10_000;
+    private boolean installOnStartup = false;
+}
@@ -0,0 +1,40 @@
+package com.sheemab.CQRS.config;
+
+
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ONE STORE (the default) — commands and queries share Spring Boot's
+ * auto-configured DataSource, EntityManagerFactory and transaction manager.
+ *
+ * The ReadStore bean names are registered as aliases of those beans, so
+ * read-side components resolve to the shared store without a second bean
+ * of each type (which would make plain by-type injection ambiguous).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "cqrs.read-store.enabled", havingValue = "false", matchIfMissing = true)
+public class SharedStoreConfig {
+
+    @Bean
+    static BeanDefinitionRegistryPostProcessor readStoreAliases() {
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                registry.registerAlias("dataSource",           ReadStore.DATA_SOURCE);
+                registry.registerAlias("entityManagerFactory", ReadStore.ENTITY_MANAGER_FACTORY);
+                registry.registerAlias("transactionManager",   ReadStore.TRANSACTION_MANAGER);
+                registry.registerAlias("jdbcTemplate",         ReadStore.JDBC_TEMPLATE);
+                registry.registerAlias("transactionTemplate",  ReadStore.TRANSACTION_TEMPLATE);
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+}
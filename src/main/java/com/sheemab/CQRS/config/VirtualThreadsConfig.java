@@ -0,0 +1,42 @@
+package com.sheemab.CQRS.config;
+
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * VIRTUAL-THREAD MODE — active when spring.threads.virtual.enabled=true.
+ *
+ * Spring Boot then runs Tomcat request handling and the application task
+ * executor on virtual threads, and WorkerThreads puts the projection and
+ * outbox workers on them too. The one shared resource left is the
+ * connection pool, so every Hikari pool is wrapped in a FairConnectionGate
+ * sized to the pool: excess callers queue FIFO instead of racing for
+ * connections.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Bean
+    static BeanPostProcessor fairConnectionGatePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    log.info("Virtual threads on: gating DataSource '{}' at {} connections, {}ms wait",
+                            beanName, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                    return new FairConnectionGate(hikari,
+                            hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.sheemab.CQRS.config;
+
+
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Starts the app's own background workers (projection queue, outbox relay,
+ * projection rebuild) on the same kind of thread as the web tier.
+ *
+ * With spring.threads.virtual.enabled=true they run on virtual threads, so
+ * they never compete with request handling for a fixed platform pool;
+ * otherwise they get dedicated daemon platform threads.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    public Thread start(String name, Runnable task) {
+        return virtual
+                ? Thread.ofVirtual().name(name).start(task)
+                : Thread.ofPlatform().name(name).daemon(true).start(task);
+    }
+
+    // For pools: threads named prefix0, prefix1, ...
+    public ThreadFactory factory(String prefix) {
+        return virtual
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).daemon(true).factory();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+}
@@ -2,12 +2,27 @@ package com.sheemab.CQRS.controller;
 
 
 import com.sheemab.CQRS.CommandBus.CommandBus;
+import com.sheemab.CQRS.command.BulkUpsertProductsCommand;
 import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.command.DecrementStockCommand;
 import com.sheemab.CQRS.command.DeleteProductCommand;
+import com.sheemab.CQRS.command.PatchProductCommand;
+import com.sheemab.CQRS.command.ReleaseStockCommand;
+import com.sheemab.CQRS.command.ReserveStockCommand;
 import com.sheemab.CQRS.command.UpdateProductCommand;
+import com.sheemab.CQRS.command_response.BulkItemResult;
+import com.sheemab.CQRS.config.BulkProperties;
+import com.sheemab.CQRS.dto.BulkProductRequest;
 import com.sheemab.CQRS.dto.CreateProductRequest;
+import com.sheemab.CQRS.dto.PatchProductRequest;
+import com.sheemab.CQRS.dto.StockQuantityRequest;
 import com.sheemab.CQRS.dto.UpdateProductRequest;
 import com.sheemab.CQRS.exception.ApiResponse;
+import com.sheemab.CQRS.exception.BulkUpsertUnavailableException;
+import com.sheemab.CQRS.exception.CommandRejectedException;
+import com.sheemab.CQRS.exception.IdempotencyKeyMismatchException;
+import com.sheemab.CQRS.exception.InvalidIdempotencyKeyException;
+import com.sheemab.CQRS.idempotency.IdempotencyRecord;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +30,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
 /**
- * COMMAND CONTROLLER — handles all write operations (POST, PUT, DELETE).
+ * COMMAND CONTROLLER — handles all write operations (POST, PUT, PATCH, DELETE).
  *
  * Key CQRS rule demonstrated:
  *   Commands go to one controller, queries to another.
@@ -32,6 +54,13 @@ import org.springframework.web.bind.annotation.*;
  *   - Does NOT fetch the created/updated product and return it
  *   - Does NOT call any query handler
  *   - If the client wants to see the updated product, they issue a Query
+ *
+ * POSTs accept an optional Idempotency-Key header; a retry with the same key
+ * gets the first response back instead of running the command again
+ * (see IdempotencyMiddleware).
+ *
+ * Stock has its own commands, so a sale doesn't rewrite the whole product:
+ * reserve → decrement (checkout) or release (cancel), or a direct decrement.
  */
 @RestController
 @RequestMapping("/api/products")
@@ -39,12 +68,16 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class ProductCommandController {
 
-    private final CommandBus commandBus;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final CommandBus     commandBus;
+    private final BulkProperties bulkProperties;
 
     // ── POST /api/products ────────────────────────────────────────────────────
     @PostMapping
     public ResponseEntity<ApiResponse<String>> createProduct(
-            @Valid @RequestBody CreateProductRequest request) {
+            @Valid @RequestBody CreateProductRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
 
         log.info("POST /api/products: name={}, category={}", request.getName(), request.getCategory());
 
@@ -54,6 +87,7 @@ public class ProductCommandController {
                 .price(request.getPrice())
                 .stock(request.getStock())
                 .description(request.getDescription())
+                .idempotencyKey(idempotencyKey)
                 .build();
 
         String productId = commandBus.dispatch(command);
@@ -63,6 +97,72 @@ public class ProductCommandController {
                 .body(ApiResponse.success(productId, "Product created successfully"));
     }
 
+    // ── POST /api/products/bulk ───────────────────────────────────────────────
+    // One command (= one transaction) per chunk. A failing chunk is reported
+    // item by item as FAILED; the other chunks still go through. With an
+    // Idempotency-Key each chunk gets its own derived key, so a retry replays
+    // the chunks that committed and re-runs only the ones that failed. The
+    // derived key is a fixed-length hash, so any key the single-item
+    // endpoints accept is accepted here too.
+    // Event-sourced mode has no bulk handler: 501 before any chunk runs.
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<List<BulkItemResult>>> bulkUpsertProducts(
+            @Valid @RequestBody BulkProductRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        List<CreateProductRequest> products = request.getProducts();
+        log.info("POST /api/products/bulk: products={}", products.size());
+
+        if (!commandBus.handles(BulkUpsertProductsCommand.class)) {
+            throw new BulkUpsertUnavailableException();
+        }
+
+        if (idempotencyKey != null
+                && (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH)) {
+            throw new InvalidIdempotencyKeyException(IdempotencyRecord.MAX_KEY_LENGTH);
+        }
+
+        int chunkSize = bulkProperties.getChunkSize();
+        List<BulkItemResult> results = new ArrayList<>(products.size());
+
+        for (int from = 0; from < products.size(); from += chunkSize) {
+            List<CreateProductCommand> chunk = products
+                    .subList(from, Math.min(from + chunkSize, products.size()))
+                    .stream()
+                    .map(item -> CreateProductCommand.builder()
+                            .name(item.getName())
+                            .category(item.getCategory())
+                            .price(item.getPrice())
+                            .stock(item.getStock())
+                            .description(item.getDescription())
+                            .build())
+                    .toList();
+
+            BulkUpsertProductsCommand command = BulkUpsertProductsCommand.builder()
+                    .items(chunk)
+                    .idempotencyKey(idempotencyKey != null ? chunkKey(idempotencyKey, from / chunkSize) : null)
+                    .build();
+
+            try {
+                results.addAll(commandBus.dispatch(command));
+            } catch (IdempotencyKeyMismatchException | InvalidIdempotencyKeyException ex) {
+                throw ex;                          // a bad key fails the request, not the chunk
+            } catch (CommandRejectedException ex) {
+                throw ex;                          // shed: 429/503 + Retry-After for the whole request
+            } catch (RuntimeException ex) {
+                log.warn("Bulk chunk starting at item {} failed: {}", from, ex.getMessage());
+                chunk.forEach(item -> results.add(BulkItemResult.builder()
+                        .name(item.getName())
+                        .category(item.getCategory())
+                        .status(BulkItemResult.Status.FAILED)
+                        .message(ex.getMessage())
+                        .build()));
+            }
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(results, "Bulk upsert processed"));
+    }
+
     // ── PUT /api/products/{id} ────────────────────────────────────────────────
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> updateProduct(
@@ -85,6 +185,89 @@ public class ProductCommandController {
         return ResponseEntity.ok(ApiResponse.success(null, "Product updated successfully"));
     }
 
+    // ── PATCH /api/products/{id} ──────────────────────────────────────────────
+    // Only the fields present in the body change; the read side gets a delta
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> patchProduct(
+            @PathVariable String id,
+            @Valid @RequestBody PatchProductRequest request) {
+
+        log.info("PATCH /api/products/{}", id);
+
+        PatchProductCommand command = PatchProductCommand.builder()
+                .productId(id)
+                .name(request.getName())
+                .category(request.getCategory())
+                .price(request.getPrice())
+                .stock(request.getStock())
+                .description(request.getDescription())
+                .build();
+
+        commandBus.dispatch(command);
+
+        return ResponseEntity.ok(ApiResponse.success(null, "Product patched successfully"));
+    }
+
+    // ── POST /api/products/{id}/reservations ──────────────────────────────────
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<ApiResponse<String>> reserveStock(
+            @PathVariable String id,
+            @Valid @RequestBody StockQuantityRequest request) {
+
+        log.info("POST /api/products/{}/reservations: quantity={}", id, request.getQuantity());
+
+        String reservationId = commandBus.dispatch(ReserveStockCommand.builder()
+                .productId(id)
+                .quantity(request.getQuantity())
+                .build());
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success(reservationId, "Stock reserved successfully"));
+    }
+
+    // ── POST /api/products/reservations/{reservationId}/decrement ─────────────
+    @PostMapping("/reservations/{reservationId}/decrement")
+    public ResponseEntity<ApiResponse<Void>> decrementReservation(@PathVariable String reservationId) {
+
+        log.info("POST /api/products/reservations/{}/decrement", reservationId);
+
+        commandBus.dispatch(DecrementStockCommand.builder()
+                .reservationId(reservationId)
+                .build());
+
+        return ResponseEntity.ok(ApiResponse.success(null, "Reservation decremented successfully"));
+    }
+
+    // ── DELETE /api/products/reservations/{reservationId} ─────────────────────
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponse<Void>> releaseReservation(@PathVariable String reservationId) {
+
+        log.info("DELETE /api/products/reservations/{}", reservationId);
+
+        commandBus.dispatch(ReleaseStockCommand.builder()
+                .reservationId(reservationId)
+                .build());
+
+        return ResponseEntity.ok(ApiResponse.success(null, "Reservation released successfully"));
+    }
+
+    // ── POST /api/products/{id}/stock/decrement ───────────────────────────────
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<ApiResponse<Void>> decrementStock(
+            @PathVariable String id,
+            @Valid @RequestBody StockQuantityRequest request) {
+
+        log.debug("POST /api/products/{}/stock/decrement: quantity={}", id, request.getQuantity());
+
+        commandBus.dispatch(DecrementStockCommand.builder()
+                .productId(id)
+                .quantity(request.getQuantity())
+                .build());
+
+        return ResponseEntity.ok(ApiResponse.success(null, "Stock decremented successfully"));
+    }
+
     // ── DELETE /api/products/{id} ─────────────────────────────────────────────
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteProduct(@PathVariable String id) {
@@ -99,4 +282,15 @@ public class ProductCommandController {
 
         return ResponseEntity.ok(ApiResponse.success(null, "Product deleted successfully"));
     }
+
+    // "bulk:" + SHA-256 of key + chunk index: 69 chars whatever the client key
+    private static String chunkKey(String idempotencyKey, int chunk) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha256.digest((idempotencyKey + '#' + chunk).getBytes(StandardCharsets.UTF_8));
+            return "bulk:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
 }
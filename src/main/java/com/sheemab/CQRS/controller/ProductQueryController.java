@@ -3,15 +3,40 @@ package com.sheemab.CQRS.controller;
 
 import com.sheemab.CQRS.QueryBus.QueryBus;
 import com.sheemab.CQRS.exception.ApiResponse;
+import com.sheemab.CQRS.query.ExportProductsQuery;
 import com.sheemab.CQRS.query.GetAllProductsQuery;
+import com.sheemab.CQRS.query.GetCategoryStatsQuery;
+import com.sheemab.CQRS.query.GetLowStockProductsQuery;
 import com.sheemab.CQRS.query.GetProductByIdQuery;
 import com.sheemab.CQRS.query.GetProductsByCategoryQuery;
+import com.sheemab.CQRS.query.GetProductsByPriceRangeQuery;
+import com.sheemab.CQRS.query.SearchProductsQuery;
+import com.sheemab.CQRS.query_cache.CachedPage;
+import com.sheemab.CQRS.query_cache.ProductListingCache;
+import com.sheemab.CQRS.query_response.CategoryStatsSummary;
+import com.sheemab.CQRS.query_response.ProductPage;
 import com.sheemab.CQRS.query_response.ProductSummary;
+import com.sheemab.CQRS.query_response.SearchResult;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
@@ -30,6 +55,25 @@ import java.util.List;
  *   - Does NOT call any command handler
  *   - Does NOT modify state
  *   - All methods here are pure reads
+ *
+ * Conditional GETs:
+ *   Single products and list pages carry a strong ETag (a digest of each
+ *   item's id + lastUpdatedAt, and the next cursor). The projection bumps
+ *   lastUpdatedAt on every change to a row, so the digest changes exactly
+ *   when the representation does. A matching If-None-Match is answered 304
+ *   by Spring before the body is serialized — and for /{id} the summary
+ *   comes from the L1 cache, so a poll that hits it touches neither the
+ *   database nor Jackson.
+ *
+ *   No Last-Modified on purpose: it has one-second granularity, and on a
+ *   list page the newest item doesn't move when a product is deleted or
+ *   leaves the category, so If-Modified-Since alone would get stale 304s.
+ *
+ * Serialized pages:
+ *   GET /api/products and /category/{category} pages are kept already
+ *   serialized in ProductListingCache, with their validators. A hit writes
+ *   the stored bytes; the projection evicts a page when what it shows
+ *   changes.
  */
 @RestController
 @RequestMapping("/api/products")
@@ -37,7 +81,12 @@ import java.util.List;
 @Slf4j
 public class ProductQueryController {
 
-    private final QueryBus queryBus;
+    // Continuation token for the next page; absent on the last page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final QueryBus            queryBus;
+    private final JsonMapper          jsonMapper;
+    private final ProductListingCache listingCache;
 
     // ── GET /api/products/{id} ────────────────────────────────────────────────
     @GetMapping("/{id}")
@@ -48,34 +97,204 @@ public class ProductQueryController {
         GetProductByIdQuery query = new GetProductByIdQuery(id);
         ProductSummary product = queryBus.dispatch(query);
 
-        return ResponseEntity.ok(ApiResponse.success(product));
+        return conditional(List.of(product), null).body(ApiResponse.success(product));
     }
 
-    // ── GET /api/products?category=...&page=...&size=... ──────────────────────
+    // ── GET /api/products?category=...&cursor=...&size=... ────────────────────
+    // ── GET /api/products?category=...&page=...&size=...  (offset, legacy) ────
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductSummary>>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestParam(required = false) String  category,
             @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String  cursor) {
+
+        log.info("GET /api/products: category={}, page={}, size={}, cursor={}",
+                category, page, size, cursor);
+
+        GetAllProductsQuery query = new GetAllProductsQuery(category, page, size, cursor);
+
+        return cachedPageResponse(listingCache.get(query, category, () -> render(queryBus.dispatch(query))));
+    }
+
+    // ── GET /api/products/price-range?min=...&max=...&category=...&cursor=... ─
+    @GetMapping("/price-range")
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> getProductsByPriceRange(
+            @RequestParam(required = false) BigDecimal min,
+            @RequestParam(required = false) BigDecimal max,
+            @RequestParam(required = false) String     category,
+            @RequestParam(required = false) Integer    size,
+            @RequestParam(required = false) String     cursor) {
+
+        log.info("GET /api/products/price-range: min={}, max={}, category={}, size={}, cursor={}",
+                min, max, category, size, cursor);
+
+        ProductPage result = queryBus.dispatch(
+                new GetProductsByPriceRangeQuery(category, min, max, size, cursor));
+
+        return pageResponse(result);
+    }
+
+    // ── GET /api/products/low-stock?threshold=...&cursor=... ──────────────────
+    @GetMapping("/low-stock")
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> getLowStockProducts(
+            @RequestParam                   int     threshold,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String  cursor) {
+
+        log.info("GET /api/products/low-stock: threshold={}, size={}, cursor={}", threshold, size, cursor);
+
+        ProductPage result = queryBus.dispatch(new GetLowStockProductsQuery(threshold, size, cursor));
+
+        return pageResponse(result);
+    }
+
+    // ── GET /api/products/search?q=...&category=...&stockStatus=...&size=... ──
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<SearchResult>> searchProducts(
+            @RequestParam("q")              String  text,
+            @RequestParam(required = false) String  category,
+            @RequestParam(required = false) String  stockStatus,
             @RequestParam(required = false) Integer size) {
 
-        log.info("GET /api/products: category={}, page={}, size={}", category, page, size);
+        log.info("GET /api/products/search: q={}, category={}, stockStatus={}, size={}",
+                text, category, stockStatus, size);
 
-        GetAllProductsQuery query = new GetAllProductsQuery(category, page, size);
-        List<ProductSummary> products = queryBus.dispatch(query);
+        SearchResult result = queryBus.dispatch(new SearchProductsQuery(text, category, stockStatus, size));
 
-        return ResponseEntity.ok(ApiResponse.success(products));
+        return ResponseEntity.ok(ApiResponse.success(result));
     }
 
-    // ── GET /api/products/category/{category} ─────────────────────────────────
+    // ── GET /api/products/category/{category}?cursor=...&size=... ─────────────
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<ProductSummary>>> getProductsByCategory(
+    public ResponseEntity<byte[]> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String  cursor) {
+
+        log.info("GET /api/products/category/{}: size={}, cursor={}", category, size, cursor);
+
+        GetProductsByCategoryQuery query = new GetProductsByCategoryQuery(category, size, cursor);
+
+        return cachedPageResponse(listingCache.get(query, category, () -> render(queryBus.dispatch(query))));
+    }
+
+    // ── GET /api/products/category/{category}?stream=true ─────────────────────
+    // The whole category as NDJSON, streamed like /export
+    @GetMapping(value = "/category/{category}", params = "stream=true",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamProductsByCategory(@PathVariable String category,
+                                         HttpServletResponse response) throws IOException {
+
+        log.info("GET /api/products/category/{}?stream=true", category);
+
+        long exported = writeNdjson(category, null, response);
+        log.info("GET /api/products/category/{} streamed {} products", category, exported);
+    }
+
+    // ── GET /api/products/category/{category}/stats ───────────────────────────
+    @GetMapping("/category/{category}/stats")
+    public ResponseEntity<ApiResponse<CategoryStatsSummary>> getCategoryStats(
             @PathVariable String category) {
 
-        log.info("GET /api/products/category/{}", category);
+        log.info("GET /api/products/category/{}/stats", category);
+
+        CategoryStatsSummary stats = queryBus.dispatch(new GetCategoryStatsQuery(category));
+
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    // ── GET /api/products/export?category=...&updatedSince=... ────────────────
+    // Newline-delimited JSON, one ProductSummary per line, written to the
+    // response as rows come off the DB cursor — constant memory, any size.
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) throws IOException {
+
+        log.info("GET /api/products/export: category={}, updatedSince={}", category, updatedSince);
+
+        long exported = writeNdjson(category, updatedSince, response);
+        log.info("GET /api/products/export streamed {} products", exported);
+    }
+
+    // Items in the body, the next page's cursor in X-Next-Cursor
+    private static ResponseEntity<ApiResponse<List<ProductSummary>>> pageResponse(ProductPage page) {
+        ResponseEntity.BodyBuilder response = conditional(page.getItems(), page.getNextCursor());
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(ApiResponse.success(page.getItems()));
+    }
+
+    // Same response as pageResponse, from bytes serialized once
+    private static ResponseEntity<byte[]> cachedPageResponse(CachedPage page) {
+        ResponseEntity.BodyBuilder response = conditional(page.etag())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.body());
+    }
+
+    private CachedPage render(ProductPage page) {
+        List<ProductSummary> items = page.getItems();
+        return new CachedPage(
+                jsonMapper.writeValueAsBytes(ApiResponse.success(items)),
+                etag(items, page.getNextCursor()),
+                page.getNextCursor(),
+                items.stream().map(ProductSummary::getId).toList());
+    }
+
+    // ── Validator: 200 with an ETag, or 304 if the client has it ─────────────
+
+    private static ResponseEntity.BodyBuilder conditional(List<ProductSummary> items, String nextCursor) {
+        return conditional(etag(items, nextCursor));
+    }
+
+    private static ResponseEntity.BodyBuilder conditional(String etag) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())      // may store, must revalidate
+                .eTag(etag);
+    }
+
+    private static String etag(List<ProductSummary> items, String nextCursor) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (ProductSummary item : items) {
+                sha256.update((item.getId() + '@' + item.getLastUpdatedAt() + '\n')
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            if (nextCursor != null) {
+                sha256.update(nextCursor.getBytes(StandardCharsets.UTF_8));
+            }
+            // 128 bits is plenty to tell versions of one resource apart
+            return HexFormat.of().formatHex(sha256.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    // One ProductSummary per line, written as rows come off the DB cursor
+    private long writeNdjson(String category, LocalDateTime updatedSince,
+                             HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
 
-        GetProductsByCategoryQuery query = new GetProductsByCategoryQuery(category);
-        List<ProductSummary> products = queryBus.dispatch(query);
+        ObjectWriter writer = jsonMapper.writerFor(ProductSummary.class);
+        OutputStream out    = response.getOutputStream();
 
-        return ResponseEntity.ok(ApiResponse.success(products));
+        long exported = queryBus.dispatch(new ExportProductsQuery(category, updatedSince, summary -> {
+            try {
+                out.write(writer.writeValueAsBytes(summary));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);    // client went away — abort the cursor
+            }
+        }));
+        out.flush();
+        return exported;
     }
 }
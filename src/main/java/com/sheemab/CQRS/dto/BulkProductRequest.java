@@ -0,0 +1,32 @@
+package com.sheemab.CQRS.dto;
+
+
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * REST API REQUEST DTO — what the client sends to POST /api/products/bulk.
+ *
+ * The controller splits the list into chunks and dispatches one
+ * BulkUpsertProductsCommand (= one transaction) per chunk.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductRequest {
+
+    public static final int MAX_PRODUCTS = 10_000;
+
+    @NotEmpty(message = "At least one product is required")
+    @Size(max = MAX_PRODUCTS, message = "At most " + MAX_PRODUCTS + " products per request")
+    private List<@Valid CreateProductRequest> products;
+}
@@ -0,0 +1,37 @@
+package com.sheemab.CQRS.dto;
+
+
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * REST API REQUEST DTO — what the client sends to PATCH /api/products/{id}.
+ * Only the fields present are changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatchProductRequest {
+
+    @Pattern(regexp = ".*\\S.*", message = "Product name must not be blank")
+    private String name;
+
+    @Pattern(regexp = ".*\\S.*", message = "Category must not be blank")
+    private String category;
+
+    @Positive(message = "Price must be greater than zero")
+    private BigDecimal price;
+
+    @Positive(message = "Stock must be greater than zero")
+    private Integer stock;
+
+    private String description;
+}
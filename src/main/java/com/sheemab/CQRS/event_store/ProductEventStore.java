@@ -0,0 +1,280 @@
+package com.sheemab.CQRS.event_store;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.config.EventSourcingProperties;
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.events.ProductStockAdjustedEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.exception.DuplicateProductException;
+import com.sheemab.CQRS.outbox.OutboxEventCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * EVENT STORE — append-only product event streams plus snapshots.
+ *
+ * Used by the write side when cqrs.event-sourcing.enabled=true:
+ *
+ *   load(id)
+ *     1. Read the snapshot row (at most one per product)
+ *     2. Replay only the events after the snapshot's sequence
+ *     → never more than snapshotEvery - 1 events, however long the history
+ *
+ *   append(aggregate, expectedVersion, events)
+ *     1. INSERT the events at expectedVersion + 1, + 2, ... as ONE JDBC
+ *        batch; a duplicate (aggregate_id, sequence) means someone else
+ *        appended first → OptimisticLockingFailureException (409)
+ *     2. If the events create or rename the product, write its name +
+ *        category to product_keys; the unique constraint there rejects a
+ *        second product with the same key → DuplicateProductException (409)
+ *     3. Snapshot the aggregate whenever the stream crosses a multiple of
+ *        snapshotEvery
+ *
+ * Product is reused as the in-memory aggregate (its domain methods apply the
+ * change); its version field holds the stream's last sequence. It is never
+ * persisted through JPA in this mode.
+ */
+@Component
+@Slf4j
+public class ProductEventStore {
+
+    static final String APPEND_SQL =
+            "INSERT INTO product_events (aggregate_id, sequence, event_type, payload, occurred_at) VALUES (?, ?, ?, ?, ?)";
+
+    static final String LOAD_SNAPSHOT_SQL =
+            "SELECT sequence, payload FROM product_snapshots WHERE aggregate_id = ?";
+
+    static final String LOAD_EVENTS_SQL =
+            "SELECT event_type, payload FROM product_events WHERE aggregate_id = ? AND sequence > ? ORDER BY sequence";
+
+    static final String SAVE_SNAPSHOT_SQL = """
+            MERGE INTO product_snapshots t
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS TEXT), CAST(? AS TIMESTAMP)))
+                AS s(aggregate_id, sequence, payload, taken_at)
+            ON t.aggregate_id = s.aggregate_id
+            WHEN MATCHED AND t.sequence < s.sequence THEN UPDATE SET
+                sequence = s.sequence,
+                payload  = s.payload,
+                taken_at = s.taken_at
+            WHEN NOT MATCHED THEN INSERT (aggregate_id, sequence, payload, taken_at)
+            VALUES (s.aggregate_id, s.sequence, s.payload, s.taken_at)
+            """;
+
+    static final String INSERT_KEY_SQL =
+            "INSERT INTO product_keys (product_id, name, category) VALUES (?, ?, ?)";
+
+    static final String MOVE_KEY_SQL =
+            "UPDATE product_keys SET name = ?, category = ? WHERE product_id = ?";
+
+    // Streams appended before product_keys existed (sequence 1: one row per stream)
+    static final String UNKEYED_STREAMS_SQL = """
+            SELECT e.aggregate_id FROM product_events e
+            WHERE e.sequence = 1
+              AND NOT EXISTS (SELECT 1 FROM product_keys k WHERE k.product_id = e.aggregate_id)
+            """;
+
+    private record Snapshot(long sequence, Product state) {
+    }
+
+    private final JdbcTemplate            jdbcTemplate;
+    private final OutboxEventCodec        codec;
+    private final JsonMapper              jsonMapper;
+    private final EventSourcingProperties properties;
+
+    public ProductEventStore(JdbcTemplate jdbcTemplate,
+                             OutboxEventCodec codec,
+                             JsonMapper jsonMapper,
+                             EventSourcingProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec        = codec;
+        this.jsonMapper   = jsonMapper;
+        this.properties   = properties;
+    }
+
+    // ── Load ──────────────────────────────────────────────────────────────────
+
+    // Not readOnly: the write model must never be read from a lagging replica
+    @Transactional
+    public Optional<Product> load(String productId) {
+        List<Snapshot> snapshots = jdbcTemplate.query(LOAD_SNAPSHOT_SQL,
+                (rs, rowNum) -> new Snapshot(
+                        rs.getLong("sequence"),
+                        jsonMapper.readValue(rs.getString("payload"), Product.class)),
+                productId);
+
+        Product product  = snapshots.isEmpty() ? null : snapshots.getFirst().state();
+        long    sequence = snapshots.isEmpty() ? 0 : snapshots.getFirst().sequence();
+
+        List<ProductEvent> tail = jdbcTemplate.query(LOAD_EVENTS_SQL,
+                (rs, rowNum) -> codec.decode(rs.getString("event_type"), rs.getString("payload")),
+                productId, sequence);
+
+        for (ProductEvent event : tail) {
+            product = apply(product, event);
+        }
+        if (product == null) {
+            return Optional.empty();
+        }
+        product.setVersion(sequence + tail.size());
+        return Optional.of(product);
+    }
+
+    // ── Append ────────────────────────────────────────────────────────────────
+
+    /**
+     * Appends events to the aggregate's stream. The caller has already applied
+     * them to `aggregate`; on success its version is the new last sequence.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Product aggregate, long expectedVersion, List<? extends ProductEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(events.size());
+        long sequence = expectedVersion;
+        for (ProductEvent event : events) {
+            rows.add(new Object[]{
+                    aggregate.getId(),
+                    ++sequence,
+                    codec.typeOf(event),
+                    codec.toJson(event),
+                    Timestamp.valueOf(event.getOccurredAt())
+            });
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(APPEND_SQL, rows);
+        } catch (DuplicateKeyException ex) {
+            throw new OptimisticLockingFailureException(
+                    "Product %s was modified concurrently (expected version %d)"
+                            .formatted(aggregate.getId(), expectedVersion), ex);
+        }
+        aggregate.setVersion(sequence);
+
+        // ── Claim the name + category if these events set it ─────────────────
+        if (events.stream().anyMatch(ProductEventStore::setsKey)) {
+            claimKey(aggregate, expectedVersion == 0);
+        }
+
+        // ── Snapshot when the stream crosses a multiple of snapshotEvery ──────
+        int every = properties.getSnapshotEvery();
+        if (sequence / every > expectedVersion / every) {
+            jdbcTemplate.update(SAVE_SNAPSHOT_SQL,
+                    aggregate.getId(),
+                    sequence,
+                    jsonMapper.writeValueAsString(aggregate),
+                    Timestamp.valueOf(LocalDateTime.now()));
+            log.debug("Snapshot taken: productId={}, sequence={}", aggregate.getId(), sequence);
+        }
+    }
+
+    // ── Business key (product_keys) ───────────────────────────────────────────
+
+    // Runs in the append transaction: the key row commits or rolls back with the events
+    private void claimKey(Product aggregate, boolean created) {
+        try {
+            if (created || jdbcTemplate.update(MOVE_KEY_SQL,
+                    aggregate.getName(), aggregate.getCategory(), aggregate.getId()) == 0) {
+                jdbcTemplate.update(INSERT_KEY_SQL, aggregate.getId(), aggregate.getName(), aggregate.getCategory());
+            }
+        } catch (DuplicateKeyException ex) {
+            throw new DuplicateProductException(
+                    "Product '%s' already exists in category '%s'"
+                            .formatted(aggregate.getName(), aggregate.getCategory()));
+        }
+    }
+
+    // A stock adjustment or a patch that leaves name and category alone keeps the key
+    private static boolean setsKey(ProductEvent event) {
+        return switch (event) {
+            case ProductCreatedEvent e       -> true;
+            case ProductStockAdjustedEvent e -> false;
+            case ProductUpdatedEvent e       -> true;
+            case ProductPatchedEvent e       -> e.getName() != null || e.getCategory() != null;
+            default                          -> false;
+        };
+    }
+
+    /**
+     * Streams appended before product_keys existed own no key row yet: claim
+     * each one's current name + category once. A product whose key another
+     * product already owns is logged and left unkeyed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillKeys() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<String> unkeyed = jdbcTemplate.queryForList(UNKEYED_STREAMS_SQL, String.class);
+        int claimed = 0;
+        for (String productId : unkeyed) {
+            Product product = load(productId).orElse(null);
+            if (product == null) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update(INSERT_KEY_SQL, product.getId(), product.getName(), product.getCategory());
+                claimed++;
+            } catch (DuplicateKeyException ex) {
+                log.warn("Product {} shares name '{}' and category '{}' with another product; left unkeyed",
+                        productId, product.getName(), product.getCategory());
+            }
+        }
+        if (!unkeyed.isEmpty()) {
+            log.info("Backfilled product_keys: {} of {} existing stream(s) keyed", claimed, unkeyed.size());
+        }
+    }
+
+    // ── Replay one event onto the aggregate ───────────────────────────────────
+
+    private static Product apply(Product current, ProductEvent event) {
+        return switch (event) {
+            case ProductCreatedEvent e -> Product.builder()
+                    .id(e.getProductId())
+                    .name(e.getName())
+                    .category(e.getCategory())
+                    .price(e.getPrice())
+                    .stock(e.getStock())
+                    .description(e.getDescription())
+                    .createdAt(e.getCreatedAt())
+                    .updatedAt(e.getCreatedAt())
+                    .build();
+            case ProductUpdatedEvent e -> {
+                current.update(e.getName(), e.getCategory(), e.getPrice(), e.getStock(), e.getDescription());
+                current.setUpdatedAt(e.getUpdatedAt());
+                yield current;
+            }
+            case ProductPatchedEvent e -> {
+                current.patch(e.getName(), e.getCategory(), e.getPrice(), e.getStock(), e.getDescription());
+                current.setUpdatedAt(e.getUpdatedAt());
+                yield current;
+            }
+            case ProductDeletedEvent e -> {
+                current.deactivate();
+                current.setUpdatedAt(e.getDeletedAt());
+                yield current;
+            }
+            default -> throw new IllegalStateException(
+                    "Cannot apply " + event.getClass().getName() + " to a product");
+        };
+    }
+}
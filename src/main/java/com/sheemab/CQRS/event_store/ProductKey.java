@@ -0,0 +1,42 @@
+package com.sheemab.CQRS.event_store;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * BUSINESS KEY ROW — the name + category a product's stream currently owns.
+ *
+ * Event-sourced mode has no products table to check for duplicates, so
+ * ProductEventStore writes this row in the same transaction as the events
+ * that create or rename a product. The unique constraint makes two racing
+ * creates of the same name + category serialize: the second one fails at
+ * the constraint instead of both committing. As with the state-based
+ * model, a deleted product keeps its row and so its name + category.
+ *
+ * Mapped here so the schema is generated with the rest of the model;
+ * reads and writes go through plain JDBC.
+ */
+@Entity
+@Table(
+        name = "product_keys",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_product_keys_name_category", columnNames = {"name", "category"})
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductKey {
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private String productId;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "category", nullable = false)
+    private String category;
+}
@@ -0,0 +1,36 @@
+package com.sheemab.CQRS.event_store;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * SNAPSHOT — the latest saved state of a product's aggregate, as of
+ * event `sequence` in its stream.
+ *
+ * One row per product, overwritten every cqrs.event-sourcing.snapshot-every
+ * events. Loading reads this row plus the events after it.
+ */
+@Entity
+@Table(name = "product_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSnapshot {
+
+    @Id
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+
+    @Column(name = "sequence", nullable = false)
+    private Long sequence;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
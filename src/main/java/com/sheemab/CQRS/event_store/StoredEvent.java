@@ -0,0 +1,54 @@
+package com.sheemab.CQRS.event_store;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * EVENT STORE ROW — one domain event in a product's stream.
+ *
+ * Append-only: rows are inserted by ProductEventStore and never updated or
+ * deleted. The primary key (aggregate_id, sequence) is also the optimistic
+ * concurrency check — two writers appending the same next sequence cannot
+ * both commit.
+ *
+ * Mapped here so the schema is generated with the rest of the model;
+ * reads and writes go through plain JDBC.
+ */
+@Entity
+@Table(name = "product_events")
+@IdClass(StoredEvent.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredEvent {
+
+    @Id
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+
+    @Id
+    @Column(name = "sequence", nullable = false)
+    private Long sequence;              // 1-based, gap-free per aggregate
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String aggregateId;
+        private Long   sequence;
+    }
+}
@@ -17,7 +17,7 @@ import java.time.LocalDateTime;
  */
 @Getter
 @AllArgsConstructor
-public class ProductCreatedEvent {
+public class ProductCreatedEvent implements ProductEvent {
     private final String        productId;
     private final String        name;
     private final String        category;
@@ -25,4 +25,9 @@ public class ProductCreatedEvent {
     private final Integer       stock;
     private final String        description;
     private final LocalDateTime createdAt;
+
+    @Override
+    public LocalDateTime getOccurredAt() {
+        return createdAt;
+    }
 }
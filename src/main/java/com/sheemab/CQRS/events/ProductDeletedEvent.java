@@ -5,6 +5,8 @@ package com.sheemab.CQRS.events;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.time.LocalDateTime;
+
 
 /**
  * DOMAIN EVENT — published by the write side after a product is deleted.
@@ -12,6 +14,12 @@ import lombok.Getter;
  */
 @Getter
 @AllArgsConstructor
-public class ProductDeletedEvent {
-    private final String productId;
+public class ProductDeletedEvent implements ProductEvent {
+    private final String        productId;
+    private final LocalDateTime deletedAt;
+
+    @Override
+    public LocalDateTime getOccurredAt() {
+        return deletedAt;
+    }
 }
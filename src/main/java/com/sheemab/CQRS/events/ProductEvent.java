@@ -0,0 +1,18 @@
+package com.sheemab.CQRS.events;
+
+
+import java.time.LocalDateTime;
+
+/**
+ * Common shape of every product domain event.
+ *
+ * Lets infrastructure (projection queue, metrics) treat events uniformly:
+ * which aggregate they belong to and when the write side produced them.
+ * The occurredAt timestamp is what projection lag is measured against.
+ */
+public interface ProductEvent {
+
+    String getProductId();
+
+    LocalDateTime getOccurredAt();
+}
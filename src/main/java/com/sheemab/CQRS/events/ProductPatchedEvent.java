@@ -0,0 +1,38 @@
+package com.sheemab.CQRS.events;
+
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DOMAIN EVENT — published by the write side after a partial update.
+ *
+ * Carries only the fields that changed; null means "unchanged". The read
+ * side applies it as a narrow UPDATE of those columns, so a repricing
+ * moves a price and a timestamp instead of the whole row.
+ *
+ * previousUpdatedAt is the product's updatedAt before this change. A delta
+ * is only correct on top of that state, so the projection checks its row
+ * has caught up to it before applying the patch.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductPatchedEvent implements ProductEvent {
+    private final String        productId;
+    private final String        name;
+    private final String        category;
+    private final BigDecimal    price;
+    private final Integer       stock;
+    private final String        description;
+    private final LocalDateTime previousUpdatedAt;
+    private final LocalDateTime updatedAt;
+
+    @Override
+    public LocalDateTime getOccurredAt() {
+        return updatedAt;
+    }
+}
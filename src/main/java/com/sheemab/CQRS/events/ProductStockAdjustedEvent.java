@@ -0,0 +1,23 @@
+package com.sheemab.CQRS.events;
+
+
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DOMAIN EVENT — a ProductUpdatedEvent written by StockLedger: only stock
+ * moved, and by a relative amount (a decrement, reservation or return).
+ *
+ * Stored and projected exactly like ProductUpdatedEvent (OutboxEventCodec
+ * records it under that type). The subtype only lets in-process listeners
+ * tell it from a change that SET stock, which HotStockCounters must not
+ * return its held units on top of.
+ */
+public class ProductStockAdjustedEvent extends ProductUpdatedEvent {
+
+    public ProductStockAdjustedEvent(String productId, String name, String category, BigDecimal price,
+                                     Integer stock, String description, LocalDateTime updatedAt) {
+        super(productId, name, category, price, stock, description, updatedAt);
+    }
+}
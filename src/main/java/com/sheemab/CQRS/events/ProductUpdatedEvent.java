@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
  */
 @Getter
 @AllArgsConstructor
-public class ProductUpdatedEvent {
+public class ProductUpdatedEvent implements ProductEvent {
     private final String        productId;
     private final String        name;
     private final String        category;
@@ -22,4 +22,9 @@ public class ProductUpdatedEvent {
     private final Integer       stock;
     private final String        description;
     private final LocalDateTime updatedAt;
+
+    @Override
+    public LocalDateTime getOccurredAt() {
+        return updatedAt;
+    }
 }
@@ -0,0 +1,31 @@
+package com.sheemab.CQRS.events;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * READ-SIDE EVENT — published by ProductViewProjector after it has written
+ * a batch to product_views.
+ *
+ * Unlike the domain events, this fires when the READ model has changed,
+ * so query-side caches invalidate at the moment the new data is visible
+ * rather than when the command committed.
+ *
+ *   productIds — every product whose view row was written
+ *   categories — categories whose listing gained, lost or reordered a
+ *                product (old and new category of a moved product)
+ *   reordered  — the same for the listing of all products
+ *   remote     — projected by another instance and read back from
+ *                product_view_changes (ViewChangeFeed), so not recorded again
+ */
+@Getter
+@AllArgsConstructor
+public class ProductViewsProjectedEvent {
+    private final Set<String> productIds;
+    private final Set<String> categories;
+    private final boolean     reordered;
+    private final boolean     remote;
+}
@@ -0,0 +1,20 @@
+package com.sheemab.CQRS.events;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * READ-SIDE EVENT — published by ProjectionRebuilder after a freshly built
+ * product_views table has been swapped in.
+ *
+ * Every row may have changed, so listeners drop everything they cached
+ * from the read model instead of evicting by id. remote: the rebuild ran on
+ * another instance (or this one lost track of changes), see ViewChangeFeed.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductViewsRebuiltEvent {
+    private final long    rows;
+    private final boolean remote;
+}
@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when POST /api/products/bulk is called while no bulk handler is
+ * registered: the event-sourced write model has none.
+ */
+public class BulkUpsertUnavailableException extends RuntimeException {
+
+    public BulkUpsertUnavailableException() {
+        super("Bulk upsert is not available with the event-sourced write model; create products one by one");
+    }
+}
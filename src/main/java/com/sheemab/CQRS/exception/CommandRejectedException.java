@@ -0,0 +1,34 @@
+package com.sheemab.CQRS.exception;
+
+
+
+import java.time.Duration;
+
+/**
+ * Thrown when admission control sheds a command instead of running it.
+ *
+ * queueFull — the command type's wait queue was full (429); otherwise the
+ * command waited maxWait without getting a slot (503). Either way nothing
+ * ran and the client may retry after retryAfter.
+ */
+public class CommandRejectedException extends RuntimeException {
+
+    private final boolean  queueFull;
+    private final Duration retryAfter;
+
+    public CommandRejectedException(String commandType, boolean queueFull, Duration retryAfter) {
+        super(queueFull
+                ? "Too many pending " + commandType + " requests, please retry later"
+                : "Server is overloaded, " + commandType + " was not run, please retry later");
+        this.queueFull  = queueFull;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isQueueFull() {
+        return queueFull;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
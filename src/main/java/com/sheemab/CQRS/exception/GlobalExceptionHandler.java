@@ -2,6 +2,8 @@ package com.sheemab.CQRS.exception;
 
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -49,6 +51,90 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    // ── Domain exception: not enough stock ────────────────────────────────────
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInsufficientStock(InsufficientStockException ex) {
+        log.warn("InsufficientStockException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Domain exception: Reservation not found ───────────────────────────────
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleReservationNotFound(ReservationNotFoundException ex) {
+        log.warn("ReservationNotFoundException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Concurrent modification: @Version check failed ────────────────────────
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOptimisticLock(OptimisticLockingFailureException ex) {
+        log.warn("OptimisticLockException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("Product was modified concurrently, please retry"));
+    }
+
+    // ── Idempotency-Key reused for a different request ───────────────────────
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+        log.warn("IdempotencyKeyMismatchException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_CONTENT)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Blank or oversized Idempotency-Key ───────────────────────────────────
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidIdempotencyKey(InvalidIdempotencyKeyException ex) {
+        log.warn("InvalidIdempotencyKeyException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Admission control shed the command ───────────────────────────────────
+    // Logged at debug: under overload a line per rejection is load we just shed
+    @ExceptionHandler(CommandRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleCommandRejected(CommandRejectedException ex) {
+        log.debug("CommandRejectedException: {}", ex.getMessage());
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(ex.isQueueFull() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Bad pagination cursor ─────────────────────────────────────────────────
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidCursor(InvalidCursorException ex) {
+        log.warn("InvalidCursorException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Search not available on this database ────────────────────────────────
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleSearchUnavailable(SearchUnavailableException ex) {
+        log.warn("SearchUnavailableException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.NOT_IMPLEMENTED)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // ── Bulk upsert not available with this write model ──────────────────────
+    @ExceptionHandler(BulkUpsertUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleBulkUpsertUnavailable(BulkUpsertUnavailableException ex) {
+        log.warn("BulkUpsertUnavailableException: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.NOT_IMPLEMENTED)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     // ── Validation exception: @Valid failed ───────────────────────────────────
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationErrors(
@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when an Idempotency-Key is sent again with a different request body
+ * (or for a different operation) than the one it was first used for.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String idempotencyKey) {
+        super("Idempotency-Key was already used for a different request: " + idempotencyKey);
+    }
+}
@@ -0,0 +1,22 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when a reservation or decrement asks for more units than the
+ * product has in stock. Nothing is changed.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final long available;
+
+    public InsufficientStockException(String productId, long requested, long available) {
+        super("Insufficient stock for product " + productId
+                + ": requested " + requested + ", available " + available);
+        this.available = available;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+}
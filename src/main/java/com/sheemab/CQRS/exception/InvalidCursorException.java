@@ -0,0 +1,13 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when a pagination cursor sent by the client cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid pagination cursor: " + cursor);
+    }
+}
@@ -0,0 +1,13 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when an Idempotency-Key header is blank or too long to store.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(int maxLength) {
+        super("Idempotency-Key must be 1 to " + maxLength + " characters");
+    }
+}
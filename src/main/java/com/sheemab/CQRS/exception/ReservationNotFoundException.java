@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when a stock reservation does not exist, or was already
+ * released or decremented.
+ */
+public class ReservationNotFoundException extends RuntimeException {
+
+    public ReservationNotFoundException(String reservationId) {
+        super("Reservation not found: " + reservationId);
+    }
+}
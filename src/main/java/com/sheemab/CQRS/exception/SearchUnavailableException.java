@@ -0,0 +1,17 @@
+package com.sheemab.CQRS.exception;
+
+
+
+/**
+ * Thrown when product search is asked for on a database that can't serve
+ * it: full-text search needs PostgreSQL, with the search column and index
+ * installed (SearchIndexInstaller).
+ */
+public class SearchUnavailableException extends RuntimeException {
+
+    public SearchUnavailableException(String database) {
+        super("PostgreSQL".equals(database)
+                ? "Product search is not installed yet (POST /actuator/searchindex)"
+                : "Product search requires PostgreSQL; this instance runs on " + database);
+    }
+}
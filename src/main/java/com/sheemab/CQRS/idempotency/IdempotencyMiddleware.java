@@ -0,0 +1,275 @@
+package com.sheemab.CQRS.idempotency;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sheemab.CQRS.CommandBus.CommandChain;
+import com.sheemab.CQRS.CommandBus.CommandMiddleware;
+import com.sheemab.CQRS.command.Command;
+import com.sheemab.CQRS.command.IdempotentCommand;
+import com.sheemab.CQRS.config.IdempotencyProperties;
+import com.sheemab.CQRS.exception.IdempotencyKeyMismatchException;
+import com.sheemab.CQRS.exception.InvalidIdempotencyKeyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MIDDLEWARE — runs an IdempotentCommand at most once per Idempotency-Key.
+ *
+ * A command with a key is answered from the first tier that knows it:
+ *   1. Caffeine, in memory   — no connection, no transaction
+ *   2. idempotency_keys      — one primary-key SELECT in autocommit
+ *   3. neither               — one transaction that INSERTs the key, runs the
+ *                              handler (which joins it) and stores the result
+ *
+ * So a retry storm costs a lookup, not a transaction. Two requests racing
+ * with the same key meet on the primary key: the second INSERT waits for
+ * the first transaction, fails as a duplicate, rolls back, and is answered
+ * with the winner's result. A command that fails is not remembered, so its
+ * retry runs again.
+ *
+ * Keys expire after cqrs.idempotency.ttl; expired rows are purged inline,
+ * at most once a minute.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@Slf4j
+public class IdempotencyMiddleware implements CommandMiddleware {
+
+    private static final String FIND_SQL = """
+            SELECT command_type, request_hash, response, expires_at
+            FROM idempotency_keys
+            WHERE idempotency_key = ? AND expires_at > ?
+            """;
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO idempotency_keys (idempotency_key, command_type, request_hash, created_at, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET response = ? WHERE idempotency_key = ?";
+
+    // An expired row for the same key would otherwise block the new claim
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at <= ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM idempotency_keys WHERE expires_at <= ?";
+
+    private static final long   PURGE_EVERY_MS = 60_000;
+    private static final String CACHE_NAME     = "idempotencyKeys";
+    private static final String KEY_PROPERTY   = "idempotencyKey";
+
+    private final JdbcTemplate                  jdbcTemplate;
+    private final TransactionTemplate           transactionTemplate;
+    private final JsonMapper                    jsonMapper;
+    private final IdempotencyProperties         properties;
+    private final Cache<String, StoredResult>   cache;
+    private final Map<Class<?>, JavaType>       resultTypes = new ConcurrentHashMap<>();
+    private final Counter                       memoryReplays;
+    private final Counter                       databaseReplays;
+    private final Counter                       mismatches;
+
+    private volatile long lastPurgeAt;
+
+    public IdempotencyMiddleware(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 JsonMapper jsonMapper,
+                                 IdempotencyProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate        = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper          = jsonMapper;
+        this.properties          = properties;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new UntilExpiresAt())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        this.memoryReplays   = replayCounter(meterRegistry, "memory");
+        this.databaseReplays = replayCounter(meterRegistry, "database");
+        this.mismatches = Counter.builder("cqrs.idempotency.mismatches")
+                .description("Idempotency-Keys reused for a different request (422)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> commandType) {
+        return IdempotentCommand.class.isAssignableFrom(commandType);
+    }
+
+    @Override
+    public Object handle(Command<?> command, CommandChain next) {
+        String key = ((IdempotentCommand) command).getIdempotencyKey();
+        if (key == null) {
+            return next.proceed(command);
+        }
+        if (key.isBlank() || key.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(IdempotencyRecord.MAX_KEY_LENGTH);
+        }
+
+        Class<?> commandType = command.getClass();
+        String   hash        = fingerprint(command);
+
+        // ── 1. Memory tier ────────────────────────────────────────────────────
+        StoredResult stored = cache.getIfPresent(key);
+        if (stored != null) {
+            return replay(key, stored, commandType, hash, memoryReplays);
+        }
+
+        // ── 2. Table ──────────────────────────────────────────────────────────
+        stored = find(key, commandType);
+        if (stored != null) {
+            cache.put(key, stored);
+            return replay(key, stored, commandType, hash, databaseReplays);
+        }
+
+        // ── 3. First time: claim the key and run the command together ────────
+        purgeIfDue();
+        try {
+            StoredResult fresh = transactionTemplate.execute(status -> {
+                LocalDateTime now       = LocalDateTime.now();
+                LocalDateTime expiresAt = now.plus(properties.getTtl());
+
+                jdbcTemplate.update(DELETE_EXPIRED_SQL, key, Timestamp.valueOf(now));
+                jdbcTemplate.update(CLAIM_SQL, key, commandType.getSimpleName(), hash,
+                        Timestamp.valueOf(now), Timestamp.valueOf(expiresAt));
+
+                Object result = next.proceed(command);
+
+                jdbcTemplate.update(COMPLETE_SQL, jsonMapper.writeValueAsString(result), key);
+                return new StoredResult(commandType.getSimpleName(), hash, result, expiresAt);
+            });
+            cache.put(key, fresh);
+            return fresh.result();
+        } catch (DuplicateKeyException ex) {
+            // Either a concurrent request with this key committed first, or the
+            // handler itself hit a unique constraint — only the former has a row
+            StoredResult winner = find(key, commandType);
+            if (winner == null) {
+                throw ex;
+            }
+            cache.put(key, winner);
+            return replay(key, winner, commandType, hash, databaseReplays);
+        }
+    }
+
+    private Object replay(String key, StoredResult stored, Class<?> commandType,
+                          String hash, Counter replays) {
+        if (!stored.commandType().equals(commandType.getSimpleName())
+                || !stored.requestHash().equals(hash)) {
+            mismatches.increment();
+            throw new IdempotencyKeyMismatchException(key);
+        }
+        replays.increment();
+        log.debug("Replayed {} for Idempotency-Key {}", stored.commandType(), key);
+        return stored.result();
+    }
+
+    private StoredResult find(String key, Class<?> commandType) {
+        List<StoredResult> rows = jdbcTemplate.query(FIND_SQL, (rs, i) -> {
+            String storedType = rs.getString("command_type");
+            // Only decode a result we are going to return; a mismatch is rejected anyway
+            Object result = storedType.equals(commandType.getSimpleName())
+                    ? jsonMapper.readValue(rs.getString("response"), resultType(commandType))
+                    : null;
+            return new StoredResult(storedType, rs.getString("request_hash"), result,
+                    rs.getTimestamp("expires_at").toLocalDateTime());
+        }, key, Timestamp.valueOf(LocalDateTime.now()));
+        return rows.isEmpty() ? null : rows.getFirst();
+    }
+
+    // SHA-256 of the command as JSON, without the key itself
+    private String fingerprint(Command<?> command) {
+        ObjectNode tree = jsonMapper.valueToTree(command);
+        tree.remove(KEY_PROPERTY);
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(jsonMapper.writeValueAsBytes(tree)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    // R of Command<R>, e.g. List<BulkItemResult> for BulkUpsertProductsCommand
+    private JavaType resultType(Class<?> commandType) {
+        return resultTypes.computeIfAbsent(commandType, type -> jsonMapper.getTypeFactory()
+                .constructType(ResolvableType.forClass(type).as(Command.class).getGeneric(0).getType()));
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeAt < PURGE_EVERY_MS) {
+            return;
+        }
+        lastPurgeAt = now;
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now()));
+            if (purged > 0) {
+                log.info("Purged {} expired idempotency key(s)", purged);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Idempotency key purge failed", ex);
+        }
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("cqrs.idempotency.replays")
+                .description("Repeated Idempotency-Keys answered without running the command")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    private record StoredResult(String commandType, String requestHash,
+                                Object result, LocalDateTime expiresAt) {
+    }
+
+    // ── A memory entry lives exactly as long as its row ──────────────────────
+
+    private static final class UntilExpiresAt implements Expiry<String, StoredResult> {
+
+        @Override
+        public long expireAfterCreate(String key, StoredResult value, long currentTime) {
+            return Math.max(0, Duration.between(LocalDateTime.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, StoredResult value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, StoredResult value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
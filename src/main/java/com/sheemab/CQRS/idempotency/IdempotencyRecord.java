@@ -0,0 +1,53 @@
+package com.sheemab.CQRS.idempotency;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * IDEMPOTENCY ROW — the stored result of a command sent with an Idempotency-Key.
+ *
+ * Inserted in the SAME transaction as the command's own writes, so a key is
+ * only remembered if the command committed. The primary key is what makes
+ * two concurrent requests with one key run the command once: the second
+ * INSERT waits for the first transaction and then fails as a duplicate.
+ *
+ * request_hash is a SHA-256 of the command (minus the key), so a key
+ * replayed with a different body is rejected instead of answered.
+ */
+@Entity
+@Table(
+        name = "idempotency_keys",
+        indexes = {
+                @Index(name = "idx_idempotency_expires", columnList = "expires_at")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @Column(name = "command_type", nullable = false)
+    private String commandType;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response", columnDefinition = "TEXT")
+    private String response;               // JSON of the command result
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
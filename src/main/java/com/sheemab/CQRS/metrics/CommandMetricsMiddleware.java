@@ -0,0 +1,41 @@
+package com.sheemab.CQRS.metrics;
+
+
+import com.sheemab.CQRS.CommandBus.CommandChain;
+import com.sheemab.CQRS.CommandBus.CommandMiddleware;
+import com.sheemab.CQRS.command.Command;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * MIDDLEWARE — records cqrs.command.dispatch timers for every command.
+ *
+ * Outermost in the chain, so the timing covers every other middleware,
+ * the handler and its transaction commit.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CommandMetricsMiddleware implements CommandMiddleware {
+
+    private final DispatchMetrics metrics;
+
+    public CommandMetricsMiddleware(MeterRegistry meterRegistry) {
+        this.metrics = new DispatchMetrics(meterRegistry,
+                "cqrs.command.dispatch", "CommandBus dispatch latency by command type and outcome");
+    }
+
+    @Override
+    public Object handle(Command<?> command, CommandChain next) {
+        long start = metrics.start();
+        try {
+            Object result = next.proceed(command);
+            metrics.success(command.getClass(), start);
+            return result;
+        } catch (RuntimeException ex) {
+            metrics.failure(command.getClass(), start, ex);
+            throw ex;
+        }
+    }
+}
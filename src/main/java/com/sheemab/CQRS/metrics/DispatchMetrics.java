@@ -0,0 +1,70 @@
+package com.sheemab.CQRS.metrics;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency + outcome timers for bus dispatches, one set per message type.
+ *
+ * Meter: {name}{type=<simple class name>, outcome=success|failure, exception=<name>|none}
+ *   - percentile histogram, so p50/p95/p99 can be computed in Prometheus
+ *   - the _count of each series doubles as the success / failure counter
+ *
+ * Cheap on the hot path: the success timer for a type is resolved once
+ * (ClassValue) and recorded with a nanoTime delta — no tag objects, no
+ * registry lookup. Failure timers are looked up on the (rare) failure path.
+ */
+class DispatchMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final String        name;
+    private final String        description;
+
+    private final ClassValue<Timer> successTimers = new ClassValue<>() {
+        @Override
+        protected Timer computeValue(Class<?> type) {
+            return timer(type, "success", "none");
+        }
+    };
+
+    DispatchMetrics(MeterRegistry meterRegistry, String name, String description) {
+        this.meterRegistry = meterRegistry;
+        this.name          = name;
+        this.description   = description;
+    }
+
+    long start() {
+        return System.nanoTime();
+    }
+
+    void success(Class<?> type, long startNanos) {
+        successTimers.get(type).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void failure(Class<?> type, long startNanos, Throwable ex) {
+        timer(type, "failure", exceptionTag(ex))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(Class<?> type, String outcome, String exception) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("type", type.getSimpleName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Spring wraps JPA's OptimisticLockException; report it under the JPA name
+    private static String exceptionTag(Throwable ex) {
+        if (ex instanceof OptimisticLockingFailureException) {
+            return "OptimisticLockException";
+        }
+        return ex.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,41 @@
+package com.sheemab.CQRS.metrics;
+
+
+import com.sheemab.CQRS.QueryBus.QueryChain;
+import com.sheemab.CQRS.QueryBus.QueryMiddleware;
+import com.sheemab.CQRS.query.Query;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * MIDDLEWARE — records cqrs.query.dispatch timers for every query.
+ *
+ * Outermost in the chain, so cache hits and misses are both measured:
+ * the latency a caller actually sees.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryMetricsMiddleware implements QueryMiddleware {
+
+    private final DispatchMetrics metrics;
+
+    public QueryMetricsMiddleware(MeterRegistry meterRegistry) {
+        this.metrics = new DispatchMetrics(meterRegistry,
+                "cqrs.query.dispatch", "QueryBus dispatch latency by query type and outcome");
+    }
+
+    @Override
+    public Object handle(Query<?> query, QueryChain next) {
+        long start = metrics.start();
+        try {
+            Object result = next.proceed(query);
+            metrics.success(query.getClass(), start);
+            return result;
+        } catch (RuntimeException ex) {
+            metrics.failure(query.getClass(), start, ex);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sheemab.CQRS.outbox;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * OUTBOX ROW — a domain event recorded in the SAME transaction as the
+ * write-side change that produced it.
+ *
+ * Either both the products row and the outbox row commit, or neither does.
+ * The OutboxRelay later delivers unprocessed rows to the projection and
+ * stamps processed_at, so an event survives a crash between commit and
+ * projection (at-least-once delivery).
+ *
+ * Ids come from a pooled sequence so inserts stay JDBC-batchable.
+ */
+@Entity
+@Table(
+        name = "product_outbox",
+        indexes = {
+                @Index(name = "idx_outbox_pending", columnList = "processed_at, id")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+    @SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;     // null = still pending
+
+    @Column(name = "attempts", nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    @Builder.Default
+    private int attempts = 0;              // failed deliveries so far
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;                  // set when the row was undecodable or parked
+}
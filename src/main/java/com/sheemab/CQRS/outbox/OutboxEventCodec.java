@@ -0,0 +1,70 @@
+package com.sheemab.CQRS.outbox;
+
+
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.events.ProductStockAdjustedEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.cfg.ConstructorDetector;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+
+/**
+ * Converts domain events to and from the JSON stored in product_outbox.payload
+ * (and product_events.payload in event-sourced mode).
+ *
+ * The events are immutable (final fields, all-args constructor), so the
+ * mapper is told to bind JSON properties to constructor parameters by name.
+ * The event classes stay free of serialization annotations.
+ */
+@Component
+public class OutboxEventCodec {
+
+    private static final Map<String, Class<? extends ProductEvent>> TYPES = Map.of(
+            ProductCreatedEvent.class.getSimpleName(), ProductCreatedEvent.class,
+            ProductUpdatedEvent.class.getSimpleName(), ProductUpdatedEvent.class,
+            ProductPatchedEvent.class.getSimpleName(), ProductPatchedEvent.class,
+            ProductDeletedEvent.class.getSimpleName(), ProductDeletedEvent.class
+    );
+
+    private final JsonMapper mapper;
+
+    public OutboxEventCodec(JsonMapper jsonMapper) {
+        this.mapper = jsonMapper.rebuild()
+                .constructorDetector(ConstructorDetector.USE_PROPERTIES_BASED)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    public OutboxEvent encode(ProductEvent event) {
+        return OutboxEvent.builder()
+                .aggregateId(event.getProductId())
+                .eventType(typeOf(event))
+                .payload(toJson(event))
+                .occurredAt(event.getOccurredAt())
+                .build();
+    }
+
+    // A stock adjustment is a ProductUpdatedEvent to every reader of the store
+    public String typeOf(ProductEvent event) {
+        Class<?> type = event instanceof ProductStockAdjustedEvent ? ProductUpdatedEvent.class : event.getClass();
+        return type.getSimpleName();
+    }
+
+    public String toJson(ProductEvent event) {
+        return mapper.writeValueAsString(event);
+    }
+
+    public ProductEvent decode(String eventType, String payload) {
+        Class<? extends ProductEvent> type = TYPES.get(eventType);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown outbox event type: " + eventType);
+        }
+        return mapper.readValue(payload, type);
+    }
+}
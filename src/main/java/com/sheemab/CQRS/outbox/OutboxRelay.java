@@ -0,0 +1,306 @@
+package com.sheemab.CQRS.outbox;
+
+
+import com.sheemab.CQRS.config.OutboxProperties;
+import com.sheemab.CQRS.config.WorkerThreads;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.projection_listener.ProductViewProjector;
+import com.sheemab.CQRS.projection_listener.ProjectionTrigger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OUTBOX RELAY — delivers product_outbox rows to the projection.
+ *
+ * Each claimer thread repeatedly runs one transaction:
+ *   1. SELECT up to batchSize pending rows ... FOR UPDATE SKIP LOCKED
+ *      (rows locked by another claimer are skipped, not waited on)
+ *   2. Decode them and hand them to ProductViewProjector
+ *   3. Stamp processed_at on the claimed rows
+ *   4. Commit — or roll back, leaving the rows pending for the next attempt
+ *
+ * A batch that fails (a read-store constraint, a bug in one event) would
+ * otherwise be claimed again head first, forever, and stop the projection
+ * of every product. So each failure adds 1 to the claimed rows' attempts:
+ *   - rows that have failed before are retried ALONE, so the good ones go
+ *     through and only the bad one keeps failing
+ *   - a row failing alone for the maxAttempts-th time is parked: marked
+ *     processed with its error, and counted in cqrs.outbox.parked
+ * The count is written in its own statement, so a database outage (where
+ * that write fails as well) doesn't use up attempts. Parked rows stay in
+ * product_outbox with their error until retention purges them.
+ *
+ * Because "projected" and "marked done" commit together, a crash at any
+ * point means the rows are simply delivered again (at-least-once).
+ * The projector's last_updated_at guard makes redelivery harmless.
+ * With a separate read store (ReadStoreConfig) the projection commits in
+ * its own transaction just before step 4, so the window is wider but the
+ * outcome is the same: a failed batch is projected again.
+ *
+ * Claimers sleep for pollInterval when idle, but every committed command
+ * wakes one up (afterCommit), so projection lag stays low without hot polling.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay implements ProjectionTrigger, SmartLifecycle {
+
+    private static final String CLAIM_SQL = """
+            SELECT id, event_type, payload, attempts
+            FROM product_outbox
+            WHERE processed_at IS NULL
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String COMPLETE_SQL =
+            "UPDATE product_outbox SET processed_at = ?, error = ? WHERE id = ?";
+
+    private static final int[] COMPLETE_TYPES = { Types.TIMESTAMP, Types.VARCHAR, Types.BIGINT };
+
+    private static final String ATTEMPT_SQL =
+            "UPDATE product_outbox SET attempts = attempts + 1 WHERE id = ?";
+
+    private static final String PARK_SQL =
+            "UPDATE product_outbox SET attempts = attempts + 1, processed_at = ?, error = ? WHERE id = ?";
+
+    private static final String PENDING_SQL =
+            "SELECT COUNT(*) FROM product_outbox WHERE processed_at IS NULL";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM product_outbox WHERE processed_at < ?";
+
+    private static final long PURGE_EVERY_MS = 60_000;
+
+    private final JdbcTemplate         jdbcTemplate;
+    private final TransactionTemplate  transactionTemplate;
+    private final ProductViewProjector projector;
+    private final OutboxEventCodec     codec;
+    private final OutboxProperties     properties;
+    private final WorkerThreads        workerThreads;
+    private final Semaphore            wakeUps = new Semaphore(0);
+    private final Counter              deliveredEvents;
+    private final Counter              failedBatches;
+    private final Counter              parkedEvents;
+
+    private volatile boolean running;
+    private final List<Thread> claimers = new ArrayList<>();
+    private volatile long lastPurgeAt;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       ProductViewProjector projector,
+                       OutboxEventCodec codec,
+                       OutboxProperties properties,
+                       WorkerThreads workerThreads,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate        = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.projector           = projector;
+        this.codec               = codec;
+        this.properties          = properties;
+        this.workerThreads       = workerThreads;
+
+        this.deliveredEvents = Counter.builder("cqrs.outbox.delivered")
+                .description("Outbox events delivered to the projection")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("cqrs.outbox.failures")
+                .description("Outbox batches rolled back and left for retry")
+                .register(meterRegistry);
+        this.parkedEvents = Counter.builder("cqrs.outbox.parked")
+                .description("Outbox rows that kept failing on their own and were set aside")
+                .register(meterRegistry);
+        Gauge.builder("cqrs.outbox.pending", this, OutboxRelay::countPending)
+                .description("Outbox rows not yet delivered")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterCommit(ProductEvent event) {
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        // One permit is enough to wake an idle claimer; don't pile them up
+        if (wakeUps.availablePermits() < properties.getClaimers()) {
+            wakeUps.release();
+        }
+    }
+
+    // ── Claimer loop ──────────────────────────────────────────────────────────
+
+    private void claimLoop() {
+        long idleWaitMs = properties.getPollInterval().toMillis();
+        while (running) {
+            int delivered = relayBatch();
+            if (delivered >= properties.getBatchSize()) {
+                continue;                          // backlog — go straight on
+            }
+            purgeIfDue();
+            try {
+                wakeUps.tryAcquire(idleWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Claims, projects and completes one batch. Returns the number of rows claimed. */
+    int relayBatch() {
+        List<ClaimedRow> batch = new ArrayList<>();
+        try {
+            Integer claimed = transactionTemplate.execute(status -> {
+                List<ClaimedRow> claimedRows = jdbcTemplate.query(CLAIM_SQL,
+                        (rs, i) -> new ClaimedRow(rs.getLong("id"), rs.getString("event_type"),
+                                rs.getString("payload"), rs.getInt("attempts")),
+                        properties.getBatchSize());
+                if (claimedRows.isEmpty()) {
+                    return 0;
+                }
+                List<ClaimedRow> rows = retryable(claimedRows);
+                batch.addAll(rows);
+
+                List<ProductEvent> events    = new ArrayList<>(rows.size());
+                List<Object[]>     completed = new ArrayList<>(rows.size());
+                Timestamp          now       = Timestamp.valueOf(LocalDateTime.now());
+
+                for (ClaimedRow row : rows) {
+                    String error = null;
+                    try {
+                        events.add(codec.decode(row.eventType(), row.payload()));
+                    } catch (RuntimeException ex) {
+                        // A row that can never be decoded must not block the rest
+                        log.error("Skipping undecodable outbox row id={}", row.id(), ex);
+                        error = ex.getMessage();
+                    }
+                    completed.add(new Object[]{ now, error, row.id() });
+                }
+
+                projector.project(events);
+                jdbcTemplate.batchUpdate(COMPLETE_SQL, completed, COMPLETE_TYPES);
+                return claimedRows.size();          // rows held back by retryable() are still there
+            });
+            deliveredEvents.increment(batch.size());
+            int count = claimed != null ? claimed : 0;
+            if (count > batch.size()) {
+                wakeUp();                           // rows held back: come straight back for them
+            }
+            return count;
+        } catch (RuntimeException ex) {
+            failedBatches.increment();
+            log.error("Outbox batch of {} row(s) failed, rows left pending for retry", batch.size(), ex);
+            recordFailure(batch, ex);
+            return 0;
+        }
+    }
+
+    // Clean rows up to the first that has failed before; that one goes alone
+    private static List<ClaimedRow> retryable(List<ClaimedRow> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).attempts() > 0) {
+                return i == 0 ? rows.subList(0, 1) : rows.subList(0, i);
+            }
+        }
+        return rows;
+    }
+
+    private void recordFailure(List<ClaimedRow> batch, RuntimeException failure) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            ClaimedRow row = batch.getFirst();
+            if (batch.size() == 1 && row.attempts() + 1 >= properties.getMaxAttempts()) {
+                jdbcTemplate.update(PARK_SQL, Timestamp.valueOf(LocalDateTime.now()),
+                        String.valueOf(failure.getMessage()), row.id());
+                parkedEvents.increment();
+                log.error("Parked outbox row id={} ({}) after {} failed attempt(s)",
+                        row.id(), row.eventType(), row.attempts() + 1);
+                return;
+            }
+            jdbcTemplate.batchUpdate(ATTEMPT_SQL, batch.stream().map(r -> new Object[]{ r.id() }).toList());
+        } catch (RuntimeException ex) {
+            log.warn("Could not record the failed attempt of {} outbox row(s): {}", batch.size(), ex.getMessage());
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeAt < PURGE_EVERY_MS) {
+            return;
+        }
+        lastPurgeAt = now;
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL,
+                    Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention())));
+            if (purged > 0) {
+                log.info("Purged {} processed outbox row(s)", purged);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Outbox purge failed", ex);
+        }
+    }
+
+    private double countPending() {
+        Long pending = jdbcTemplate.queryForObject(PENDING_SQL, Long.class);
+        return pending != null ? pending : 0;
+    }
+
+    private record ClaimedRow(long id, String eventType, String payload, int attempts) {
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < properties.getClaimers(); i++) {
+            claimers.add(workerThreads.start("outbox-relay-" + i, this::claimLoop));
+        }
+        log.info("Outbox relay started: claimers={}, batchSize={}, pollInterval={}",
+                properties.getClaimers(), properties.getBatchSize(), properties.getPollInterval());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUps.release(claimers.size());
+        for (Thread claimer : claimers) {
+            try {
+                claimer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        claimers.clear();
+        log.info("Outbox relay stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop AFTER the web server; anything still pending is picked up on restart
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
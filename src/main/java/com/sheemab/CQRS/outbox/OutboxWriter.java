@@ -0,0 +1,37 @@
+package com.sheemab.CQRS.outbox;
+
+
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * OUTBOX WRITER — records every product event in product_outbox.
+ *
+ * Runs synchronously inside the command handler's transaction
+ * (Propagation.MANDATORY fails fast if an event is ever published outside
+ * one). The command handlers don't change: they still just publish events.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxEventCodec codec;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void on(ProductEvent event) {
+        outboxRepository.save(codec.encode(event));
+        log.debug("Recorded {} in outbox: productId={}",
+                event.getClass().getSimpleName(), event.getProductId());
+    }
+}
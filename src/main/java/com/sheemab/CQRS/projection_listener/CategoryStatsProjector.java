@@ -0,0 +1,177 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PROJECTOR — keeps category_stats in step with product_views.
+ *
+ * Called by ProductViewProjector inside the same transaction:
+ *   1. lockRows — read the affected product_views rows FOR UPDATE before
+ *      they are written, so concurrent batches for the same product
+ *      serialize and each sees the other's result
+ *   2. apply    — for every product, subtract its old row's contribution
+ *      and add its new row's: a category change moves the product between
+ *      two categories, a deactivation only subtracts
+ *
+ * Counts, stock and the price sum are additive, so deltas are exact.
+ * Min/max are not (removing the cheapest product needs the next one), so
+ * they are re-read for the touched categories from the
+ * (category, active, price, id) index — two index probes per category.
+ */
+@Component
+@Slf4j
+public class CategoryStatsProjector {
+
+    private static final String LOCK_SQL =
+            "SELECT id, name, category, price, stock, active, last_updated_at FROM product_views WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    static final String DELTA_SQL = """
+            MERGE INTO category_stats t
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                           CAST(? AS BIGINT), CAST(? AS NUMERIC(19, 2)), CAST(? AS TIMESTAMP)))
+                AS s(category, active_count, in_stock_count, total_stock, price_sum, last_updated_at)
+            ON t.category = s.category
+            WHEN MATCHED THEN UPDATE SET
+                active_count    = t.active_count   + s.active_count,
+                in_stock_count  = t.in_stock_count + s.in_stock_count,
+                total_stock     = t.total_stock    + s.total_stock,
+                price_sum       = t.price_sum      + s.price_sum,
+                last_updated_at = s.last_updated_at
+            WHEN NOT MATCHED THEN INSERT
+                (category, active_count, in_stock_count, total_stock, price_sum, last_updated_at)
+            VALUES
+                (s.category, s.active_count, s.in_stock_count, s.total_stock, s.price_sum, s.last_updated_at)
+            """;
+
+    private static final int[] DELTA_TYPES = {
+            Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.NUMERIC, Types.TIMESTAMP
+    };
+
+    static final String MIN_MAX_SQL = """
+            UPDATE category_stats SET
+                min_price = (SELECT MIN(price) FROM product_views WHERE category = ? AND active = TRUE),
+                max_price = (SELECT MAX(price) FROM product_views WHERE category = ? AND active = TRUE)
+            WHERE category = ?
+            """;
+
+    static final String RECOMPUTE_SQL = """
+            INSERT INTO category_stats
+                (category, active_count, in_stock_count, total_stock, price_sum,
+                 min_price, max_price, last_updated_at)
+            SELECT category,
+                   COUNT(*),
+                   SUM(CASE WHEN stock > 0 THEN 1 ELSE 0 END),
+                   SUM(stock),
+                   SUM(price),
+                   MIN(price),
+                   MAX(price),
+                   CURRENT_TIMESTAMP
+            FROM product_views
+            WHERE active = TRUE
+            GROUP BY category
+            """;
+
+    // Per-category change produced by one batch
+    private static final class Delta {
+        long       activeCount;
+        long       inStockCount;
+        long       totalStock;
+        BigDecimal priceSum = BigDecimal.ZERO;
+
+        void add(ViewState row, int sign) {
+            activeCount  += sign;
+            inStockCount += row.stock() > 0 ? sign : 0;
+            totalStock   += (long) sign * row.stock();
+            priceSum      = priceSum.add(sign > 0 ? row.price() : row.price().negate());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryStatsProjector(@Qualifier(ReadStore.JDBC_TEMPLATE) JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    Map<String, ViewState> lockRows(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, ViewState> rows = new HashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query(LOCK_SQL.formatted(placeholders), rs -> {
+            rows.put(rs.getString("id"), new ViewState(
+                    rs.getString("name"),
+                    rs.getString("category"),
+                    rs.getBigDecimal("price"),
+                    rs.getInt("stock"),
+                    rs.getBoolean("active"),
+                    rs.getTimestamp("last_updated_at").toLocalDateTime()));
+        }, productIds.toArray());
+        return rows;
+    }
+
+    void apply(Map<String, ViewState> before, Collection<PendingViewChange> changes) {
+        // Sorted, so concurrent batches lock category rows in the same order
+        Map<String, Delta> deltas = new TreeMap<>();
+
+        for (PendingViewChange change : changes) {
+            ViewState old   = before.get(change.productId());
+            ViewState fresh = change.after(old);
+            if (old == fresh) {
+                continue;
+            }
+            if (old != null && old.active()) {
+                deltas.computeIfAbsent(old.category(), c -> new Delta()).add(old, -1);
+            }
+            if (fresh != null && fresh.active()) {
+                deltas.computeIfAbsent(fresh.category(), c -> new Delta()).add(fresh, +1);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Timestamp      now     = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        List<Object[]> minMax  = new ArrayList<>(deltas.size());
+        deltas.forEach((category, delta) -> {
+            updates.add(new Object[]{ category, delta.activeCount, delta.inStockCount,
+                    delta.totalStock, delta.priceSum, now });
+            minMax.add(new Object[]{ category, category, category });
+        });
+
+        jdbcTemplate.batchUpdate(DELTA_SQL, updates, DELTA_TYPES);
+        jdbcTemplate.batchUpdate(MIN_MAX_SQL, minMax);
+        log.debug("Updated stats for {} categor(ies)", deltas.size());
+    }
+
+    // Full recompute from product_views — after a rebuild, or to backfill
+    long recomputeAll() {
+        jdbcTemplate.update("DELETE FROM category_stats");
+        return jdbcTemplate.update(RECOMPUTE_SQL);
+    }
+
+    // True when product_views has rows but category_stats has none yet
+    boolean needsBackfill() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM product_views) AND NOT EXISTS (SELECT 1 FROM category_stats)",
+                Boolean.class));
+    }
+}
@@ -0,0 +1,184 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The net effect of every event for ONE product within a projection batch.
+ *
+ * Several events for the same productId collapse into a single row write:
+ *   created → updated → updated   becomes one upsert with the latest fields
+ *   updated → deleted             becomes one upsert with active = false
+ *   deleted (view already exists) becomes a narrow deactivate UPDATE
+ *   patched → patched             becomes one narrow UPDATE of the patched
+ *                                 columns (merged into the row if a
+ *                                 create/update came first)
+ */
+class PendingViewChange {
+
+    // Columns a patch can set, as bits of patchMask()
+    static final int NAME        = 1;
+    static final int CATEGORY    = 1 << 1;
+    static final int PRICE       = 1 << 2;
+    static final int STOCK       = 1 << 3;         // also sets stock_status
+    static final int DESCRIPTION = 1 << 4;
+    static final int ACTIVE      = 1 << 5;
+
+    private final String productId;
+
+    private boolean       hasState;          // true once a create/update was seen
+    private String        name;
+    private String        category;
+    private BigDecimal    price;
+    private Integer       stock;
+    private String        description;
+    private LocalDateTime createdAt;         // only known from ProductCreatedEvent
+    private Boolean       active;            // null = keep whatever the view has
+    private LocalDateTime lastUpdatedAt;
+    private LocalDateTime patchBase;         // set while only patches were seen: the state they apply to
+
+    PendingViewChange(String productId) {
+        this.productId = productId;
+    }
+
+    void apply(ProductCreatedEvent event) {
+        applyState(event.getName(), event.getCategory(), event.getPrice(),
+                event.getStock(), event.getDescription(), event.getCreatedAt());
+        this.createdAt = event.getCreatedAt();
+        this.active    = true;
+    }
+
+    void apply(ProductUpdatedEvent event) {
+        applyState(event.getName(), event.getCategory(), event.getPrice(),
+                event.getStock(), event.getDescription(), event.getUpdatedAt());
+    }
+
+    void apply(ProductPatchedEvent event) {
+        if (!hasState && patchBase == null) {
+            this.patchBase = event.getPreviousUpdatedAt();
+        }
+        if (event.getName() != null)        this.name        = event.getName();
+        if (event.getCategory() != null)    this.category    = event.getCategory();
+        if (event.getPrice() != null)       this.price       = event.getPrice();
+        if (event.getStock() != null)       this.stock       = event.getStock();
+        if (event.getDescription() != null) this.description = event.getDescription();
+        this.lastUpdatedAt = event.getUpdatedAt();
+    }
+
+    void apply(ProductDeletedEvent event) {
+        this.active        = false;
+        this.lastUpdatedAt = event.getDeletedAt();
+    }
+
+    boolean hasState() {
+        return hasState;
+    }
+
+    boolean isPatch() {
+        return !hasState && patchBase != null;
+    }
+
+    String productId() {
+        return productId;
+    }
+
+    LocalDateTime patchBase() {
+        return patchBase;
+    }
+
+    // The row as it will look once this change is written over `before`
+    // (null = no row). Mirrors the guards in UPSERT_SQL and DEACTIVATE_SQL.
+    ViewState after(ViewState before) {
+        if (before != null && before.lastUpdatedAt().isAfter(lastUpdatedAt)) {
+            return before;                              // stale change, row untouched
+        }
+        if (hasState) {
+            boolean isActive = active != null ? active : before == null || before.active();
+            return new ViewState(name, category, price, stock, isActive, lastUpdatedAt);
+        }
+        if (patchBase != null) {
+            if (before == null || before.lastUpdatedAt().isBefore(patchBase)) {
+                return before;                          // row not caught up, patch not applied
+            }
+            return new ViewState(
+                    name     != null ? name     : before.name(),
+                    category != null ? category : before.category(),
+                    price    != null ? price    : before.price(),
+                    stock    != null ? stock    : before.stock(),
+                    active   != null ? active   : before.active(),
+                    lastUpdatedAt);
+        }
+        return before == null
+                ? new ViewState("", "", BigDecimal.ZERO, 0, false, lastUpdatedAt)     // tombstone
+                : new ViewState(before.name(), before.category(), before.price(), before.stock(),
+                        false, lastUpdatedAt);
+    }
+
+    // Column order must match ProductViewProjector.UPSERT_SQL
+    Object[] toUpsertArgs() {
+        return new Object[]{
+                productId, name, category, price, stock, description, active,
+                resolveStockStatus(stock), toTimestamp(createdAt), toTimestamp(lastUpdatedAt)
+        };
+    }
+
+    int patchMask() {
+        return (name        != null ? NAME        : 0)
+             | (category    != null ? CATEGORY    : 0)
+             | (price       != null ? PRICE       : 0)
+             | (stock       != null ? STOCK       : 0)
+             | (description != null ? DESCRIPTION : 0)
+             | (active      != null ? ACTIVE      : 0);
+    }
+
+    // Column order must match ProductViewProjector.patchSql(table, patchMask())
+    Object[] toPatchArgs() {
+        List<Object> args = new ArrayList<>(10);
+        if (name != null)        args.add(name);
+        if (category != null)    args.add(category);
+        if (price != null)       args.add(price);
+        if (stock != null)     { args.add(stock); args.add(resolveStockStatus(stock)); }
+        if (description != null) args.add(description);
+        if (active != null)      args.add(active);
+        Timestamp at = toTimestamp(lastUpdatedAt);
+        args.add(at);
+        args.add(productId);
+        args.add(toTimestamp(patchBase));
+        args.add(at);
+        return args.toArray();
+    }
+
+    // Column order must match ProductViewProjector.DEACTIVATE_SQL
+    Object[] toDeactivateArgs() {
+        return new Object[]{ productId, toTimestamp(lastUpdatedAt) };
+    }
+
+    private void applyState(String name, String category, BigDecimal price,
+                            Integer stock, String description, LocalDateTime at) {
+        this.hasState      = true;
+        this.name          = name;
+        this.category      = category;
+        this.price         = price;
+        this.stock         = stock;
+        this.description   = description;
+        this.lastUpdatedAt = at;
+        this.patchBase     = null;
+    }
+
+    private static String resolveStockStatus(int stock) {
+        return stock > 0 ? "IN STOCK" : "OUT OF STOCK";
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+}
@@ -2,16 +2,13 @@ package com.sheemab.CQRS.projection_listener;
 
 import com.sheemab.CQRS.events.ProductCreatedEvent;
 import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
 import com.sheemab.CQRS.events.ProductUpdatedEvent;
-import com.sheemab.CQRS.query_entity.ProductView;
-import com.sheemab.CQRS.repository.ProductReadRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.time.LocalDateTime;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
  * PROJECTION LISTENER — the bridge between the write side and read side.
@@ -21,97 +18,54 @@ import java.time.LocalDateTime;
  * How it works:
  *   1. Command Handler saves to write DB (products table)
  *   2. Command Handler publishes a domain event (Spring ApplicationEvent)
- *   3. THIS class listens to that event via @EventListener
- *   4. It updates the product_views table to match the new write state
- *
- * Result: the read model is always eventually consistent with the write model.
- * In this demo it's synchronous (same JVM, same thread).
- * In production you'd use Kafka/RabbitMQ for async cross-service projections.
+ *   3. THIS class receives the event once the command transaction COMMITS
+ *      (@TransactionalEventListener, phase = AFTER_COMMIT)
+ *   4. It hands the event to the ProjectionTrigger and returns immediately:
+ *        - outbox mode (default): wakes the OutboxRelay, which delivers the
+ *          row the handler already wrote to product_outbox
+ *        - queue mode: puts the event on the in-memory ProjectionQueue
+ *   5. ProductViewProjector batches the events and updates product_views
  *
- * Key rule: This is the ONLY place that writes to product_views.
- * No command handler, no query handler, no controller ever writes to product_views.
+ * Result: commands return as soon as the write side commits, and the read
+ * model catches up asynchronously (see the cqrs.projection.lag metric).
+ * Events from rolled-back transactions are never projected.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ProductProjectionListener {
 
-    private final ProductReadRepository readRepository;
+    private final ProjectionTrigger projectionTrigger;
 
     // ── Handle ProductCreatedEvent ────────────────────────────────────────────
 
-    @EventListener
-    @Transactional
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void on(ProductCreatedEvent event) {
-        log.info("Projecting ProductCreatedEvent: productId={}", event.getProductId());
-
-        ProductView view = ProductView.builder()
-                .id(event.getProductId())
-                .name(event.getName())
-                .category(event.getCategory())
-                .price(event.getPrice())
-                .stock(event.getStock())
-                .description(event.getDescription())
-                .active(true)
-                .stockStatus(resolveStockStatus(event.getStock()))
-                .createdAt(event.getCreatedAt())
-                .lastUpdatedAt(event.getCreatedAt())
-                .build();
-
-        readRepository.save(view);
-        log.info("ProductView created for productId={}", event.getProductId());
+        log.info("Committed ProductCreatedEvent, triggering projection: productId={}", event.getProductId());
+        projectionTrigger.afterCommit(event);
     }
 
     // ── Handle ProductUpdatedEvent ────────────────────────────────────────────
 
-    @EventListener
-    @Transactional
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void on(ProductUpdatedEvent event) {
-        log.info("Projecting ProductUpdatedEvent: productId={}", event.getProductId());
-
-        ProductView view = readRepository.findById(event.getProductId())
-                .orElseGet(() -> {
-                    // Safety net: if the view somehow doesn't exist, create it
-                    log.warn("ProductView not found for update, creating: productId={}",
-                            event.getProductId());
-                    return ProductView.builder()
-                            .id(event.getProductId())
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                });
+        log.info("Committed ProductUpdatedEvent, triggering projection: productId={}", event.getProductId());
+        projectionTrigger.afterCommit(event);
+    }
 
-        // Apply the update to the read model
-        view.setName(event.getName());
-        view.setCategory(event.getCategory());
-        view.setPrice(event.getPrice());
-        view.setStock(event.getStock());
-        view.setDescription(event.getDescription());
-        view.setStockStatus(resolveStockStatus(event.getStock()));
-        view.setLastUpdatedAt(event.getUpdatedAt());
+    // ── Handle ProductPatchedEvent ────────────────────────────────────────────
 
-        readRepository.save(view);
-        log.info("ProductView updated for productId={}", event.getProductId());
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ProductPatchedEvent event) {
+        log.info("Committed ProductPatchedEvent, triggering projection: productId={}", event.getProductId());
+        projectionTrigger.afterCommit(event);
     }
 
     // ── Handle ProductDeletedEvent ────────────────────────────────────────────
 
-    @EventListener
-    @Transactional
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void on(ProductDeletedEvent event) {
-        log.info("Projecting ProductDeletedEvent: productId={}", event.getProductId());
-
-        readRepository.findById(event.getProductId()).ifPresent(view -> {
-            // Soft delete — mark inactive, keep the record for history
-            view.setActive(false);
-            view.setLastUpdatedAt(LocalDateTime.now());
-            readRepository.save(view);
-            log.info("ProductView soft-deleted for productId={}", event.getProductId());
-        });
-    }
-
-    // ── Helper ────────────────────────────────────────────────────────────────
-
-    private String resolveStockStatus(int stock) {
-        return stock > 0 ? "IN STOCK" : "OUT OF STOCK";
+        log.info("Committed ProductDeletedEvent, triggering projection: productId={}", event.getProductId());
+        projectionTrigger.afterCommit(event);
     }
-}
\ No newline at end of file
+}
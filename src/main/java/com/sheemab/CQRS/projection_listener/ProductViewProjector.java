@@ -0,0 +1,400 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.events.ProductViewsProjectedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * PROJECTOR — applies a batch of domain events to the product_views table.
+ *
+ * This is the ONLY place that writes to product_views.
+ *
+ * Per batch:
+ *   1. Coalesce events by productId (see PendingViewChange), so ten updates
+ *      to the same product become one row write.
+ *   2. Write all upserts with ONE batched MERGE statement, all
+ *      stand-alone deletes with ONE batched MERGE statement, and
+ *      stand-alone patches with one batched narrow UPDATE per set of
+ *      patched columns (a repricing writes price + timestamp only).
+ *   3. Record projection lag = time from the event's occurredAt (the
+ *      write side's createdAt / updatedAt) to the view write: a timer with
+ *      a histogram, plus a gauge holding the lag of the latest batch.
+ *   4. Keep category_stats in step: CategoryStatsProjector reads the rows
+ *      before the write and applies the old → new difference per category.
+ *   5. Publish ProductViewsProjectedEvent so read-side caches can evict
+ *      exactly the products that changed once this transaction commits.
+ *
+ * Writes are idempotent and order-tolerant: a row is only touched when the
+ * event is at least as new as the view (last_updated_at guard). That makes
+ * at-least-once redelivery from the outbox, and several relay claimers
+ * racing on the same product, safe. A delete that overtakes its product's
+ * create leaves an inactive tombstone row, so the late create finds a newer
+ * row and is dropped instead of bringing the product back.
+ *
+ * Patches are deltas, so they also need the row to have caught up with the
+ * state they were made on (previousUpdatedAt). If it hasn't — an earlier
+ * event is still in another claimer's batch, or was lost or parked — the
+ * product's current state is loaded from the write store (WriteStoreProducts)
+ * and upserted in place of the patch, rather than failing the whole batch.
+ * Counted in cqrs.projection.reloads.
+ *
+ * ProjectionRebuilder reuses the same statements against its shadow table
+ * (replay), and pauses projection while it swaps that table in (pauseWhile).
+ *
+ * Plain JDBC is used instead of readRepository.save(view) on purpose:
+ * save() does a SELECT per row to decide between INSERT and UPDATE, which
+ * defeats batching. MERGE lets the database make that decision per row.
+ */
+@Component
+@Slf4j
+public class ProductViewProjector {
+
+    static final String VIEW_TABLE = "product_views";
+
+    static final String UPSERT_SQL = upsertSql(VIEW_TABLE);
+
+    private static String upsertSql(String table) {
+        return """
+            MERGE INTO %s t
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+                           CAST(? AS NUMERIC(10, 2)), CAST(? AS INTEGER), CAST(? AS TEXT),
+                           CAST(? AS BOOLEAN), CAST(? AS VARCHAR(255)),
+                           CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP)))
+                AS s(id, name, category, price, stock, description,
+                     active, stock_status, created_at, last_updated_at)
+            ON t.id = s.id
+            WHEN MATCHED AND t.last_updated_at <= s.last_updated_at THEN UPDATE SET
+                name            = s.name,
+                category        = s.category,
+                price           = s.price,
+                stock           = s.stock,
+                description     = s.description,
+                active          = COALESCE(s.active, t.active),
+                stock_status    = s.stock_status,
+                last_updated_at = s.last_updated_at
+            WHEN NOT MATCHED THEN INSERT
+                (id, name, category, price, stock, description,
+                 active, stock_status, created_at, last_updated_at)
+            VALUES
+                (s.id, s.name, s.category, s.price, s.stock, s.description,
+                 COALESCE(s.active, TRUE), s.stock_status,
+                 COALESCE(s.created_at, s.last_updated_at), s.last_updated_at)
+            """.formatted(table);
+    }
+
+    private static final int[] UPSERT_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.INTEGER,
+            Types.VARCHAR, Types.BOOLEAN, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP
+    };
+
+    static final String DEACTIVATE_SQL = deactivateSql(VIEW_TABLE);
+
+    // No row yet (the create is still in another claimer's batch): insert an
+    // inactive placeholder carrying the delete's timestamp — no query lists it
+    private static String deactivateSql(String table) {
+        return """
+            MERGE INTO %s t
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP))) AS s(id, last_updated_at)
+            ON t.id = s.id
+            WHEN MATCHED AND t.last_updated_at <= s.last_updated_at THEN UPDATE SET
+                active          = FALSE,
+                last_updated_at = s.last_updated_at
+            WHEN NOT MATCHED THEN INSERT
+                (id, name, category, price, stock, description,
+                 active, stock_status, created_at, last_updated_at)
+            VALUES
+                (s.id, '', '', 0, 0, NULL,
+                 FALSE, 'OUT OF STOCK', s.last_updated_at, s.last_updated_at)
+            """.formatted(table);
+    }
+
+    private static final int[] DEACTIVATE_TYPES = { Types.VARCHAR, Types.TIMESTAMP };
+
+    // One statement per set of patched columns (PendingViewChange bits)
+    private static final Map<Integer, String> PATCH_SQL = new ConcurrentHashMap<>();
+
+    private static String patchSql(String table, int mask) {
+        StringBuilder set = new StringBuilder();
+        if ((mask & PendingViewChange.NAME) != 0)        set.append("name = ?, ");
+        if ((mask & PendingViewChange.CATEGORY) != 0)    set.append("category = ?, ");
+        if ((mask & PendingViewChange.PRICE) != 0)       set.append("price = ?, ");
+        if ((mask & PendingViewChange.STOCK) != 0)       set.append("stock = ?, stock_status = ?, ");
+        if ((mask & PendingViewChange.DESCRIPTION) != 0) set.append("description = ?, ");
+        if ((mask & PendingViewChange.ACTIVE) != 0)      set.append("active = ?, ");
+        return "UPDATE " + table + " SET " + set + "last_updated_at = ?"
+                + " WHERE id = ? AND last_updated_at >= ? AND last_updated_at <= ?";
+    }
+
+    private static int[] patchTypes(int mask) {
+        List<Integer> types = new ArrayList<>(10);
+        if ((mask & PendingViewChange.NAME) != 0)        types.add(Types.VARCHAR);
+        if ((mask & PendingViewChange.CATEGORY) != 0)    types.add(Types.VARCHAR);
+        if ((mask & PendingViewChange.PRICE) != 0)       types.add(Types.NUMERIC);
+        if ((mask & PendingViewChange.STOCK) != 0)     { types.add(Types.INTEGER); types.add(Types.VARCHAR); }
+        if ((mask & PendingViewChange.DESCRIPTION) != 0) types.add(Types.VARCHAR);
+        if ((mask & PendingViewChange.ACTIVE) != 0)      types.add(Types.BOOLEAN);
+        types.addAll(List.of(Types.TIMESTAMP, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP));
+        return types.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static final String LAST_UPDATED_SQL = "SELECT last_updated_at FROM %s WHERE id = ?";
+
+    private final JdbcTemplate              jdbcTemplate;
+    private final CategoryStatsProjector    categoryStats;
+    private final WriteStoreProducts        writeStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer                     lagTimer;
+    private final Timer                     flushTimer;
+    private final Counter                   reloads;
+    private final AtomicLong                currentLagMillis = new AtomicLong();
+    private final ReadWriteLock             pauseLock        = new ReentrantReadWriteLock();
+
+    public ProductViewProjector(@Qualifier(ReadStore.JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                                CategoryStatsProjector categoryStats,
+                                WriteStoreProducts writeStore,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate   = jdbcTemplate;
+        this.categoryStats  = categoryStats;
+        this.writeStore     = writeStore;
+        this.eventPublisher = eventPublisher;
+        this.lagTimer = Timer.builder("cqrs.projection.lag")
+                .description("Time from the write-side event to the ProductView write")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        TimeGauge.builder("cqrs.projection.lag.current", currentLagMillis,
+                        TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Projection lag of the most recently written event")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("cqrs.projection.flush")
+                .description("Time to write one coalesced projection batch")
+                .register(meterRegistry);
+        this.reloads = Counter.builder("cqrs.projection.reloads")
+                .description("Patches replaced by the product's state from the write store")
+                .register(meterRegistry);
+    }
+
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER)
+    public void project(List<? extends ProductEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Held until this transaction completes, so a rebuild swap can wait
+        // for in-flight batches and hold new ones back (see pauseWhile)
+        Lock paused = pauseLock.readLock();
+        paused.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                paused.unlock();
+            }
+        });
+
+        Map<String, PendingViewChange> changes = coalesce(events);
+        ProductViewsProjectedEvent projected = flushTimer.record(() -> {
+            Map<String, ViewState> before = categoryStats.lockRows(changes.keySet());
+            reloadPatchGaps(changes, before);
+            write(changes, VIEW_TABLE);
+            categoryStats.apply(before, changes.values());
+            return projected(before, changes);
+        });
+        eventPublisher.publishEvent(projected);
+
+        LocalDateTime now = LocalDateTime.now();
+        Duration lag = Duration.ZERO;
+        for (ProductEvent event : events) {
+            lag = Duration.between(event.getOccurredAt(), now);
+            lagTimer.record(lag);
+        }
+        currentLagMillis.set(lag.toMillis());
+    }
+
+    // Which listings may now list different products, or in a different order:
+    // those where a product appeared, disappeared or was renamed (list pages
+    // are ordered by name, then id). Anything else only changes the pages
+    // showing the product itself.
+    private static ProductViewsProjectedEvent projected(Map<String, ViewState> before,
+                                                        Map<String, PendingViewChange> changes) {
+        Set<String> categories = new HashSet<>();
+        boolean     reordered  = false;
+
+        for (PendingViewChange change : changes.values()) {
+            ViewState old       = before.get(change.productId());
+            ViewState fresh     = change.after(old);
+            boolean   wasListed = old != null && old.active();
+            boolean   isListed  = fresh != null && fresh.active();
+            if (!wasListed && !isListed) {
+                continue;
+            }
+            boolean moved = wasListed != isListed || !old.name().equals(fresh.name());
+            if (moved || !old.category().equals(fresh.category())) {
+                if (wasListed) categories.add(old.category());
+                if (isListed)  categories.add(fresh.category());
+            }
+            reordered |= moved;
+        }
+        return new ProductViewsProjectedEvent(Set.copyOf(changes.keySet()), Set.copyOf(categories), reordered, false);
+    }
+
+    // ── Rebuild support (ProjectionRebuilder) ─────────────────────────────────
+
+    // Writes events to another table with the same shape, e.g. a rebuild's
+    // shadow table. No metrics and no ProductViewsProjectedEvent.
+    void replay(String table, List<? extends ProductEvent> events) {
+        if (!events.isEmpty()) {
+            write(coalesce(events), table);
+        }
+    }
+
+    // Runs action with no projection batch in flight and none starting
+    <T> T pauseWhile(Supplier<T> action) {
+        Lock exclusive = pauseLock.writeLock();
+        exclusive.lock();
+        try {
+            return action.get();
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    // ── Step 1: collapse the batch to one change per product ──────────────────
+
+    private Map<String, PendingViewChange> coalesce(List<? extends ProductEvent> events) {
+        Map<String, PendingViewChange> changes = new LinkedHashMap<>();
+
+        for (ProductEvent event : events) {
+            apply(changes.computeIfAbsent(event.getProductId(), PendingViewChange::new), event);
+        }
+        return changes;
+    }
+
+    private static void apply(PendingViewChange change, ProductEvent event) {
+        switch (event) {
+            case ProductCreatedEvent created -> change.apply(created);
+            case ProductUpdatedEvent updated -> change.apply(updated);
+            case ProductPatchedEvent patched -> change.apply(patched);
+            case ProductDeletedEvent deleted -> change.apply(deleted);
+            default -> log.warn("Ignoring unknown event type for projection: {}",
+                    event.getClass().getSimpleName());
+        }
+    }
+
+    // A patch whose base state the row never reached becomes an upsert of
+    // the product as the write store has it now. That state is at least as
+    // new as the patch, so later deliveries of older events are dropped by
+    // the usual last_updated_at guard.
+    private void reloadPatchGaps(Map<String, PendingViewChange> changes, Map<String, ViewState> before) {
+        for (PendingViewChange change : List.copyOf(changes.values())) {
+            ViewState row = before.get(change.productId());
+            if (!change.isPatch() || row != null && !row.lastUpdatedAt().isBefore(change.patchBase())) {
+                continue;
+            }
+            Optional<Product> product = writeStore.load(change.productId());
+            if (product.isEmpty()) {
+                log.warn("Dropping patch for product {}: not in the write store", change.productId());
+                changes.remove(change.productId());
+                continue;
+            }
+            PendingViewChange reloaded = new PendingViewChange(change.productId());
+            WriteStoreProducts.asEvents(product.get()).forEach(event -> apply(reloaded, event));
+            changes.put(change.productId(), reloaded);
+            reloads.increment();
+            log.info("Patch for product {} is ahead of product_views; projected its write-side state instead",
+                    change.productId());
+        }
+    }
+
+    // ── Step 2: one batched statement per kind of write ───────────────────────
+
+    private void write(Map<String, PendingViewChange> changes, String table) {
+        List<Object[]> upserts       = new ArrayList<>();
+        List<Object[]> deactivations = new ArrayList<>();
+        Map<Integer, List<PendingViewChange>> patches = new HashMap<>();
+
+        for (PendingViewChange change : changes.values()) {
+            if (change.hasState()) {
+                upserts.add(change.toUpsertArgs());
+            } else if (change.isPatch()) {
+                patches.computeIfAbsent(change.patchMask(), mask -> new ArrayList<>()).add(change);
+            } else {
+                deactivations.add(change.toDeactivateArgs());
+            }
+        }
+
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(table.equals(VIEW_TABLE) ? UPSERT_SQL : upsertSql(table),
+                    upserts, UPSERT_TYPES);
+        }
+        if (!deactivations.isEmpty()) {
+            jdbcTemplate.batchUpdate(table.equals(VIEW_TABLE) ? DEACTIVATE_SQL : deactivateSql(table),
+                    deactivations, DEACTIVATE_TYPES);
+        }
+
+        patches.forEach((mask, patched) -> writePatches(table, mask, patched));
+
+        log.debug("Projected {} product(s) into {}: {} upsert(s), {} deactivation(s), {} patch shape(s)",
+                changes.size(), table, upserts.size(), deactivations.size(), patches.size());
+    }
+
+    private void writePatches(String table, int mask, List<PendingViewChange> patched) {
+        String sql = table.equals(VIEW_TABLE)
+                ? PATCH_SQL.computeIfAbsent(mask, m -> patchSql(VIEW_TABLE, m))
+                : patchSql(table, mask);
+        int[] counts = jdbcTemplate.batchUpdate(sql,
+                patched.stream().map(PendingViewChange::toPatchArgs).toList(), patchTypes(mask));
+
+        // 0 rows: the row is newer (a redelivery — fine) or hasn't caught up
+        // with the state the patch was made on. project() has already replaced
+        // such patches for product_views (reloadPatchGaps); replay never sends any
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                PendingViewChange change = patched.get(i);
+                List<LocalDateTime> row = jdbcTemplate.queryForList(
+                        LAST_UPDATED_SQL.formatted(table), LocalDateTime.class, change.productId());
+                if (row.isEmpty() || row.getFirst().isBefore(change.patchBase())) {
+                    throw new IllegalStateException("Patch for product " + change.productId()
+                            + " is ahead of " + table + "; an earlier event has not been projected yet");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.config.ProjectionProperties;
+import com.sheemab.CQRS.config.WorkerThreads;
+import com.sheemab.CQRS.events.ProductEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PROJECTION QUEUE — the asynchronous stage between the write side and
+ * the read model.
+ *
+ * How it works:
+ *   1. ProductProjectionListener enqueues events AFTER the command commits
+ *   2. A single worker thread drains up to batchSize events at a time
+ *      (waiting up to linger for a batch to fill)
+ *   3. The batch is handed to ProductViewProjector, which coalesces it
+ *      and writes it with batched JDBC
+ *
+ * A single worker keeps events for the same product in commit order.
+ * The queue is bounded: if the projection falls behind, committing threads
+ * block in enqueue() rather than letting the backlog grow without limit.
+ *
+ * On shutdown the worker keeps draining until the queue is empty, so events
+ * already accepted are not lost on a graceful stop. A crash still loses
+ * them — use the transactional outbox (cqrs.outbox.enabled=true) for that.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.outbox.enabled", havingValue = "false")
+@Slf4j
+public class ProjectionQueue implements ProjectionTrigger, SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final BlockingQueue<ProductEvent> queue;
+    private final ProductViewProjector        projector;
+    private final ProjectionProperties        properties;
+    private final WorkerThreads               workerThreads;
+    private final Counter                     failedEvents;
+
+    private volatile boolean running;
+    private Thread           worker;
+
+    public ProjectionQueue(ProductViewProjector projector,
+                           ProjectionProperties properties,
+                           WorkerThreads workerThreads,
+                           MeterRegistry meterRegistry) {
+        this.queue         = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.projector     = projector;
+        this.properties    = properties;
+        this.workerThreads = workerThreads;
+
+        Gauge.builder("cqrs.projection.queue.size", queue, BlockingQueue::size)
+                .description("Events committed but not yet projected")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("cqrs.projection.failures")
+                .description("Events whose projection batch failed to write")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterCommit(ProductEvent event) {
+        enqueue(event);
+    }
+
+    public void enqueue(ProductEvent event) {
+        try {
+            queue.put(event);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failedEvents.increment();
+            log.error("Interrupted while queueing {} for projection: productId={}",
+                    event.getClass().getSimpleName(), event.getProductId());
+        }
+    }
+
+    // ── Worker loop ───────────────────────────────────────────────────────────
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<ProductEvent> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.warn("Projection worker interrupted, {} event(s) left in queue", queue.size());
+                return;
+            }
+        }
+    }
+
+    private List<ProductEvent> nextBatch() throws InterruptedException {
+        ProductEvent first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return List.of();
+        }
+
+        int batchSize = properties.getBatchSize();
+        List<ProductEvent> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+
+        long deadline = System.nanoTime() + properties.getLinger().toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            ProductEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void flush(List<ProductEvent> batch) {
+        try {
+            projector.project(batch);
+        } catch (RuntimeException ex) {
+            failedEvents.increment(batch.size());
+            log.error("Failed to project batch of {} event(s)", batch.size(), ex);
+        }
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        worker = workerThreads.start("projection-worker", this::drainLoop);
+        log.info("Projection worker started: capacity={}, batchSize={}, linger={}, virtual={}",
+                properties.getQueueCapacity(), properties.getBatchSize(), properties.getLinger(),
+                workerThreads.isVirtual());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Projection worker stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop AFTER the web server has stopped accepting commands,
+    // so nothing is enqueued once the worker has drained.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
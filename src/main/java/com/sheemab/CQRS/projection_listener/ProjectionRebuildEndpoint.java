@@ -0,0 +1,34 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * ACTUATOR ENDPOINT — /actuator/projectionrebuild
+ *
+ *   GET  → progress of the current or last rebuild (state, partitions done,
+ *          products replayed, products per second)
+ *   POST → start a rebuild; no-op if one is already running
+ */
+@Component
+@Endpoint(id = "projectionrebuild")
+@RequiredArgsConstructor
+public class ProjectionRebuildEndpoint {
+
+    private final ProjectionRebuilder rebuilder;
+
+    @ReadOperation
+    public ProjectionRebuilder.Status status() {
+        return rebuilder.status();
+    }
+
+    @WriteOperation
+    public ProjectionRebuilder.Status start() {
+        rebuilder.start();
+        return rebuilder.status();
+    }
+}
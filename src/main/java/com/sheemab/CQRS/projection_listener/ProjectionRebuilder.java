@@ -0,0 +1,406 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.config.EventSourcingProperties;
+import com.sheemab.CQRS.config.ProjectionProperties;
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.config.WorkerThreads;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.events.ProductViewsRebuiltEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.sheemab.CQRS.projection_listener.ProductViewProjector.VIEW_TABLE;
+import static com.sheemab.CQRS.projection_listener.WriteStoreProducts.PRODUCTS_SQL;
+
+/**
+ * REBUILD — recreates product_views from the write side without downtime.
+ *
+ *   1. Create an empty shadow table shaped like product_views
+ *   2. Split the source into id-range partitions and replay them in
+ *      parallel into the shadow table, chunkSize rows at a time. The source
+ *      is the products table, or the event store in event-sourced mode
+ *   3. Create the secondary indexes (cheaper after the bulk load)
+ *   4. Catch up: re-replay every product changed since the rebuild started
+ *   5. Pause projection, catch up once more, swap the tables with renames
+ *      and recompute category_stats, all in ONE transaction
+ *
+ * Live events keep landing in the old table meanwhile. Every change they
+ * carry also moved the product's updated_at (or appended to its stream),
+ * so steps 4–5 copy it into the shadow table; events projected after the
+ * swap land in the new table. The last_updated_at guard makes the overlap
+ * harmless.
+ *
+ * Started from /actuator/projectionrebuild or at startup
+ * (cqrs.projection.rebuild.on-startup). One rebuild at a time, on one
+ * instance. The shadow table and the swap use PostgreSQL DDL.
+ *
+ * The source is read from the write store and the tables are written in
+ * the read store; with one shared store the two transactions are one.
+ */
+@Component
+@Slf4j
+public class ProjectionRebuilder {
+
+    static final String SHADOW_TABLE = "product_views_shadow";
+
+    private static final String OLD_TABLE    = "product_views_old";
+    private static final String INDEX_SUFFIX = "_rebuild";
+
+    private static final String STREAM_IDS_SQL =
+            "SELECT DISTINCT aggregate_id FROM product_events";
+
+    private static final String INDEXES_SQL = """
+            SELECT i.relname AS name, pg_get_indexdef(i.oid) AS definition, x.indisprimary AS is_primary
+            FROM pg_index x
+            JOIN pg_class i ON i.oid = x.indexrelid
+            WHERE x.indrelid = CAST(? AS regclass)
+            """;
+
+    public record Status(String state, Instant startedAt, Instant finishedAt,
+                         int partitions, int partitionsDone, long rows,
+                         double rowsPerSecond, String error) {
+    }
+
+    // from inclusive, to exclusive; null = unbounded
+    private record Partition(String from, String to) {
+    }
+
+    private record IndexDef(String name, String definition, boolean primary) {
+    }
+
+    private final JdbcTemplate                 jdbcTemplate;
+    private final JdbcTemplate                 streamingJdbcTemplate;
+    private final TransactionTemplate          transactions;
+    private final TransactionTemplate          sourceTransactions;
+    private final ProductViewProjector         projector;
+    private final CategoryStatsProjector       categoryStats;
+    private final ProductEventStore            eventStore;
+    private final ApplicationEventPublisher    eventPublisher;
+    private final WorkerThreads                workerThreads;
+    private final ProjectionProperties.Rebuild properties;
+    private final boolean                      eventSourced;
+    private final Counter                      rebuiltRows;
+
+    private final AtomicBoolean running        = new AtomicBoolean();
+    private final AtomicInteger partitionsDone = new AtomicInteger();
+    private final AtomicLong    rows           = new AtomicLong();
+
+    private volatile String  state = "IDLE";
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int     partitions;
+    private volatile String  error;
+
+    public ProjectionRebuilder(@Qualifier(ReadStore.JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                               @Qualifier(ReadStore.TRANSACTION_TEMPLATE) TransactionTemplate transactions,
+                               JdbcTemplate sourceJdbcTemplate,
+                               TransactionTemplate sourceTransactions,
+                               ProductViewProjector projector,
+                               CategoryStatsProjector categoryStats,
+                               ProductEventStore eventStore,
+                               ApplicationEventPublisher eventPublisher,
+                               WorkerThreads workerThreads,
+                               ProjectionProperties projectionProperties,
+                               EventSourcingProperties eventSourcingProperties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate   = jdbcTemplate;
+        this.transactions   = transactions;
+        this.sourceTransactions = sourceTransactions;
+        this.projector      = projector;
+        this.categoryStats  = categoryStats;
+        this.eventStore     = eventStore;
+        this.eventPublisher = eventPublisher;
+        this.workerThreads  = workerThreads;
+        this.properties     = projectionProperties.getRebuild();
+        this.eventSourced   = eventSourcingProperties.isEnabled();
+
+        // Same write-store DataSource (so it joins the source transaction),
+        // but rows are fetched through a cursor instead of all at once
+        this.streamingJdbcTemplate = new JdbcTemplate(sourceJdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(properties.getChunkSize());
+
+        this.rebuiltRows = Counter.builder("cqrs.projection.rebuild.rows")
+                .description("Products replayed into the shadow table by a rebuild")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isOnStartup()) {
+            start();
+        } else if (categoryStats.needsBackfill()) {
+            // First start with category_stats: derive it from the existing views
+            long categories = projector.pauseWhile(() -> transactions.execute(status -> categoryStats.recomputeAll()));
+            log.info("Backfilled category_stats for {} categor(ies)", categories);
+        }
+    }
+
+    /**
+     * Starts a rebuild in the background.
+     * Returns false if one is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        rows.set(0);
+        partitionsDone.set(0);
+        partitions = 0;
+        error      = null;
+        finishedAt = null;
+        startedAt  = Instant.now();
+        state      = "REPLAYING";
+
+        workerThreads.start("projection-rebuild", this::rebuild);
+        return true;
+    }
+
+    public Status status() {
+        Instant from = startedAt;
+        double  rate = 0;
+        if (from != null) {
+            Instant to = finishedAt != null ? finishedAt : Instant.now();
+            rate = rows.get() / Math.max(Duration.between(from, to).toMillis() / 1000.0, 0.001);
+        }
+        return new Status(state, from, finishedAt, partitions, partitionsDone.get(),
+                rows.get(), rate, error);
+    }
+
+    // ── The rebuild itself (runs on the projection-rebuild thread) ───────────
+
+    private void rebuild() {
+        Duration margin = properties.getCatchUpMargin();
+        try {
+            LocalDateTime firstCatchUp = LocalDateTime.now().minus(margin);
+            log.info("Rebuilding {} from {} into {}",
+                    VIEW_TABLE, eventSourced ? "product_events" : "products", SHADOW_TABLE);
+
+            // ── 1. Shadow table ───────────────────────────────────────────────
+            List<IndexDef> indexes = createShadowTable();
+
+            // ── 2. Parallel partitioned replay ────────────────────────────────
+            replayPartitions();
+
+            // ── 3. Secondary indexes ──────────────────────────────────────────
+            state = "INDEXING";
+            for (IndexDef index : indexes) {
+                if (!index.primary()) {
+                    jdbcTemplate.execute(shadowDefinition(index));
+                }
+            }
+
+            // ── 4. Catch up with changes made during steps 1–3 ────────────────
+            state = "CATCHING_UP";
+            LocalDateTime finalCatchUp = LocalDateTime.now().minus(margin);
+            long caughtUp = fromSource(status -> catchUp(firstCatchUp));
+
+            // ── 5. Final catch-up and swap, with projection paused ────────────
+            state = "SWAPPING";
+            caughtUp += projector.pauseWhile(() -> fromSource(status -> {
+                long changed = catchUp(finalCatchUp);
+                swap(indexes);
+                categoryStats.recomputeAll();
+                return changed;
+            }));
+
+            eventPublisher.publishEvent(new ProductViewsRebuiltEvent(rows.get(), false));
+            state = "COMPLETED";
+            log.info("Rebuilt {}: {} product(s) in {} partition(s), {} re-read during catch-up",
+                    VIEW_TABLE, rows.get(), partitions, caughtUp);
+        } catch (RuntimeException ex) {
+            state = "FAILED";
+            error = ex.getMessage();
+            log.error("Rebuild of {} failed; the live table is unchanged", VIEW_TABLE, ex);
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    private List<IndexDef> createShadowTable() {
+        List<IndexDef> indexes = jdbcTemplate.query(INDEXES_SQL,
+                (rs, rowNum) -> new IndexDef(
+                        rs.getString("name"), rs.getString("definition"), rs.getBoolean("is_primary")),
+                VIEW_TABLE);
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW_TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + SHADOW_TABLE
+                + " (LIKE " + VIEW_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING GENERATED)");
+
+        // The primary key goes on first: every replayed row is a MERGE on id
+        for (IndexDef index : indexes) {
+            if (index.primary()) {
+                jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " ADD CONSTRAINT "
+                        + index.name() + INDEX_SUFFIX + " PRIMARY KEY (id)");
+            }
+        }
+        return indexes;
+    }
+
+    private void replayPartitions() {
+        List<Partition> ranges = partitions();
+        partitions = ranges.size();
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.max(1, properties.getParallelism()), workerThreads.factory("projection-rebuild-"));
+        try {
+            List<Future<?>> results = new ArrayList<>(ranges.size());
+            for (Partition range : ranges) {
+                results.add(pool.submit(() -> {
+                    long replayed = fromSource(status -> replay(range));
+                    partitionsDone.incrementAndGet();
+                    log.debug("Rebuild partition [{}, {}) done: {} product(s)",
+                            range.from(), range.to(), replayed);
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Rebuild partition failed: " + ex.getCause().getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rebuild interrupted", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Ids are UUIDs: split the two-hex-digit prefix space into equal ranges.
+    // The first and last range are open, so any id falls in exactly one.
+    private List<Partition> partitions() {
+        int count = Math.clamp(properties.getPartitions(), 1, 256);
+        List<Partition> ranges = new ArrayList<>(count);
+        String from = null;
+        for (int i = 1; i < count; i++) {
+            String to = "%02x".formatted(i * 256 / count);
+            ranges.add(new Partition(from, to));
+            from = to;
+        }
+        ranges.add(new Partition(from, null));
+        return ranges;
+    }
+
+    private long replay(Partition range) {
+        List<Object> args = new ArrayList<>(2);
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        String column = eventSourced ? "aggregate_id" : "id";
+        if (range.from() != null) {
+            where.append(" AND ").append(column).append(" >= ?");
+            args.add(range.from());
+        }
+        if (range.to() != null) {
+            where.append(" AND ").append(column).append(" < ?");
+            args.add(range.to());
+        }
+
+        long replayed = eventSourced
+                ? replayStreams(STREAM_IDS_SQL + where, args.toArray())
+                : replayProducts(PRODUCTS_SQL + where, args.toArray());
+        rows.addAndGet(replayed);
+        rebuiltRows.increment(replayed);
+        return replayed;
+    }
+
+    // A read-store transaction for the writes, inside a write-store one that
+    // keeps the source cursor open (the same transaction with one store)
+    private <T> T fromSource(TransactionCallback<T> work) {
+        return sourceTransactions.execute(source -> transactions.execute(work));
+    }
+
+    private long catchUp(LocalDateTime since) {
+        return eventSourced
+                ? replayStreams(STREAM_IDS_SQL + " WHERE occurred_at >= ?", since)
+                : replayProducts(PRODUCTS_SQL + " WHERE updated_at >= ?", since);
+    }
+
+    private long replayProducts(String sql, Object... args) {
+        try (Stream<Product> products = streamingJdbcTemplate.queryForStream(
+                sql, WriteStoreProducts.PRODUCT_MAPPER, args)) {
+            return replayChunks(products);
+        }
+    }
+
+    // Event-sourced: each aggregate is loaded from its snapshot + later events
+    private long replayStreams(String sql, Object... args) {
+        try (Stream<String> ids = streamingJdbcTemplate.queryForStream(
+                sql, (rs, rowNum) -> rs.getString(1), args)) {
+            return replayChunks(ids.map(eventStore::load).flatMap(Optional::stream));
+        }
+    }
+
+    private long replayChunks(Stream<Product> products) {
+        int chunkSize = properties.getChunkSize();
+        List<ProductEvent> events = new ArrayList<>(chunkSize * 3);
+        long total   = 0;
+        int  inChunk = 0;
+
+        Iterator<Product> iterator = products.iterator();
+        while (iterator.hasNext()) {
+            events.addAll(WriteStoreProducts.asEvents(iterator.next()));
+            if (++inChunk == chunkSize) {
+                projector.replay(SHADOW_TABLE, events);
+                total  += inChunk;
+                inChunk = 0;
+                events.clear();
+            }
+        }
+        projector.replay(SHADOW_TABLE, events);
+        return total + inChunk;
+    }
+
+    // Renames are transactional in PostgreSQL: readers see the old table or
+    // the new one, never neither
+    private void swap(List<IndexDef> indexes) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + OLD_TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + VIEW_TABLE + " RENAME TO " + OLD_TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " RENAME TO " + VIEW_TABLE);
+        jdbcTemplate.execute("DROP TABLE " + OLD_TABLE);
+
+        // The old indexes are gone with the old table, so their names are free
+        for (IndexDef index : indexes) {
+            jdbcTemplate.execute(index.primary()
+                    ? "ALTER TABLE " + VIEW_TABLE + " RENAME CONSTRAINT "
+                            + index.name() + INDEX_SUFFIX + " TO " + index.name()
+                    : "ALTER INDEX " + index.name() + INDEX_SUFFIX + " RENAME TO " + index.name());
+        }
+    }
+
+    // CREATE INDEX idx ON public.product_views ... → CREATE INDEX idx_rebuild ON public.product_views_shadow ...
+    private static String shadowDefinition(IndexDef index) {
+        return index.definition()
+                .replaceFirst("INDEX " + Pattern.quote(index.name()) + " ON ",
+                        "INDEX " + index.name() + INDEX_SUFFIX + " ON ")
+                .replaceFirst(" ON (ONLY )?(\\w+\\.)?" + VIEW_TABLE + " ",
+                        " ON $1$2" + SHADOW_TABLE + " ");
+    }
+}
@@ -0,0 +1,18 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.events.ProductEvent;
+
+/**
+ * What happens to a domain event once its command transaction has committed.
+ *
+ * Two implementations, selected by cqrs.outbox.enabled:
+ *   ProjectionQueue (false) — event goes onto an in-memory queue; fast,
+ *                             but lost if the JVM dies before it is projected
+ *   OutboxRelay     (true)  — event is already durable in product_outbox;
+ *                             the relay is just woken up to deliver it now
+ */
+public interface ProjectionTrigger {
+
+    void afterCommit(ProductEvent event);
+}
@@ -0,0 +1,12 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of one product_views row that feed category_stats, plus the
+ * name that orders list pages (see ProductViewsProjectedEvent).
+ */
+record ViewState(String name, String category, BigDecimal price, int stock, boolean active, LocalDateTime lastUpdatedAt) {
+}
@@ -0,0 +1,77 @@
+package com.sheemab.CQRS.projection_listener;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.config.EventSourcingProperties;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductCreatedEvent;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The write side's current state of a product, as the projection needs it:
+ * the products table, or the event store in event-sourced mode.
+ *
+ * ProjectionRebuilder replays whole partitions from here; ProductViewProjector
+ * loads single products when an event can't be applied to the view row it
+ * finds (a patch whose base state was never projected).
+ */
+@Component
+class WriteStoreProducts {
+
+    static final String PRODUCTS_SQL =
+            "SELECT id, name, category, price, stock, description, active, created_at, updated_at FROM products";
+
+    static final RowMapper<Product> PRODUCT_MAPPER = (rs, rowNum) -> Product.builder()
+            .id(rs.getString("id"))
+            .name(rs.getString("name"))
+            .category(rs.getString("category"))
+            .price(rs.getBigDecimal("price"))
+            .stock(rs.getInt("stock"))
+            .description(rs.getString("description"))
+            .active(rs.getBoolean("active"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate      jdbcTemplate;
+    private final ProductEventStore eventStore;
+    private final boolean           eventSourced;
+
+    WriteStoreProducts(JdbcTemplate jdbcTemplate,
+                       ProductEventStore eventStore,
+                       EventSourcingProperties eventSourcingProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventStore   = eventStore;
+        this.eventSourced = eventSourcingProperties.isEnabled();
+    }
+
+    /** The product as it is now, deleted ones included. */
+    Optional<Product> load(String productId) {
+        if (eventSourced) {
+            return eventStore.load(productId);
+        }
+        return jdbcTemplate.query(PRODUCTS_SQL + " WHERE id = ?", PRODUCT_MAPPER, productId).stream().findFirst();
+    }
+
+    // The current state of a product as the events the projector understands
+    static List<ProductEvent> asEvents(Product product) {
+        List<ProductEvent> events = new ArrayList<>(3);
+        events.add(new ProductCreatedEvent(product.getId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getStock(), product.getDescription(), product.getCreatedAt()));
+        events.add(new ProductUpdatedEvent(product.getId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getStock(), product.getDescription(), product.getUpdatedAt()));
+        if (!product.isActive()) {
+            events.add(new ProductDeletedEvent(product.getId(), product.getUpdatedAt()));
+        }
+        return events;
+    }
+}
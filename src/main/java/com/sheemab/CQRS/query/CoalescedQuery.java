@@ -0,0 +1,12 @@
+package com.sheemab.CQRS.query;
+
+
+/**
+ * A query whose concurrent identical copies may share one execution
+ * (see SingleFlightQueryMiddleware).
+ *
+ * "Identical" is equals(): the query must be a value object over all its
+ * parameters, and its result must not be modified by whoever receives it.
+ */
+public interface CoalescedQuery {
+}
@@ -0,0 +1,24 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.query_response.ProductSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * QUERY — represents the INTENT to export every active product,
+ * optionally narrowed to one category and/or recently changed products.
+ *
+ * A streaming query: results are pushed to the sink one at a time
+ * instead of being returned. The answer is the number of rows exported.
+ */
+@Getter
+@AllArgsConstructor
+public class ExportProductsQuery implements Query<Long> {
+    private final String        category;       // optional
+    private final LocalDateTime updatedSince;   // optional, inclusive
+    private final Consumer<ProductSummary> sink;
+}
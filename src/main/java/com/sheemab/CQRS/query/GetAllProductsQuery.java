@@ -1,7 +1,9 @@
 package com.sheemab.CQRS.query;
 
 
+import com.sheemab.CQRS.query_response.ProductPage;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -11,12 +13,20 @@ import lombok.NoArgsConstructor;
  *
  * Queries can carry filter/sort/page parameters.
  * The handler decides how to apply them — the caller just asks a question.
+ *
+ * Two ways to page:
+ *   cursor      — opaque token from the previous page (keyset/seek paging);
+ *                 every page costs the same no matter how deep it is
+ *   page + size — classic offset paging, kept for existing clients
+ * Neither given = first page.
  */
 @Getter
+@EqualsAndHashCode
 @NoArgsConstructor
 @AllArgsConstructor
-public class GetAllProductsQuery {
+public class GetAllProductsQuery implements Query<ProductPage>, CoalescedQuery {
     private String  category;       // optional filter by category
     private Integer page;           // optional pagination (0-based)
     private Integer size;           // optional page size
-}
\ No newline at end of file
+    private String  cursor;         // optional continuation token (wins over page)
+}
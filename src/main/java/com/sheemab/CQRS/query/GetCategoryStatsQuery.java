@@ -0,0 +1,17 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.query_response.CategoryStatsSummary;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * QUERY — count, stock and price statistics for one category.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class GetCategoryStatsQuery implements Query<CategoryStatsSummary>, CoalescedQuery {
+    private final String category;
+}
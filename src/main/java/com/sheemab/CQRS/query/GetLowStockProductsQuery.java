@@ -0,0 +1,20 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.query_response.ProductPage;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * QUERY — active products with stock below a threshold, lowest stock
+ * first (low-stock alerts). Keyset-paged.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class GetLowStockProductsQuery implements Query<ProductPage>, CoalescedQuery {
+    private final int     threshold;        // stock < threshold
+    private final Integer size;             // optional page size
+    private final String  cursor;           // optional continuation token
+}
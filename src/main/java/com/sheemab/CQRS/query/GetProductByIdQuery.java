@@ -1,7 +1,9 @@
 package com.sheemab.CQRS.query;
 
 
+import com.sheemab.CQRS.query_response.ProductSummary;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 /**
@@ -12,7 +14,8 @@ import lombok.Getter;
  * They NEVER modify state — purely read-only.
  */
 @Getter
+@EqualsAndHashCode
 @AllArgsConstructor
-public class GetProductByIdQuery {
+public class GetProductByIdQuery implements Query<ProductSummary>, CoalescedQuery {
     private final String productId;
 }
\ No newline at end of file
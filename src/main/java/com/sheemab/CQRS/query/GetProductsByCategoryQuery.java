@@ -1,14 +1,24 @@
 package com.sheemab.CQRS.query;
 
 
+import com.sheemab.CQRS.query_response.ProductPage;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 /**
- * QUERY — represents the INTENT to fetch all products in a category.
+ * QUERY — represents the INTENT to fetch the active products in a category,
+ * one keyset page at a time.
+ *
+ * The whole category is never returned in one go: size is capped by the
+ * handler, and the next page is requested with the returned cursor.
+ * To read a whole category, stream it (ExportProductsQuery).
  */
 @Getter
+@EqualsAndHashCode
 @AllArgsConstructor
-public class GetProductsByCategoryQuery {
-    private final String category;
+public class GetProductsByCategoryQuery implements Query<ProductPage>, CoalescedQuery {
+    private final String  category;
+    private final Integer size;         // optional page size
+    private final String  cursor;       // optional continuation token
 }
@@ -0,0 +1,24 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.query_response.ProductPage;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * QUERY — active products priced between minPrice and maxPrice (inclusive),
+ * cheapest first, optionally within one category. Keyset-paged.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class GetProductsByPriceRangeQuery implements Query<ProductPage>, CoalescedQuery {
+    private final String     category;      // optional
+    private final BigDecimal minPrice;      // optional, default 0
+    private final BigDecimal maxPrice;      // optional, default no upper bound
+    private final Integer    size;          // optional page size
+    private final String     cursor;        // optional continuation token
+}
@@ -0,0 +1,37 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (name, id) ordering of product listings.
+ *
+ * Encoded for clients as an opaque URL-safe token, so the format can change
+ * without breaking anyone. The id goes first because product ids are UUIDs
+ * and never contain the separator, while names may contain anything.
+ */
+public record ProductCursor(String name, String id) {
+
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        byte[] raw = (id + SEPARATOR + name).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split <= 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new ProductCursor(raw.substring(split + 1), raw.substring(0, split));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.sheemab.CQRS.query;
+
+
+
+/**
+ * Marker for every query.
+ *
+ * R is the shape of the answer. The QueryBus uses the concrete class
+ * to find the one handler for it.
+ */
+public interface Query<R> {
+}
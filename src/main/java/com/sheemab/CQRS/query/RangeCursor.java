@@ -0,0 +1,57 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.exception.InvalidCursorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a (value, id) ordering — price or stock range queries.
+ *
+ * Same opaque URL-safe encoding as ProductCursor; the value is kept as text
+ * and parsed by the handler that knows what it is.
+ */
+public record RangeCursor(String value, String id) {
+
+    private static final char SEPARATOR = ':';
+
+    public static RangeCursor of(Object value, String id) {
+        return new RangeCursor(String.valueOf(value), id);
+    }
+
+    public String encode() {
+        byte[] raw = (id + SEPARATOR + value).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static RangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split <= 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new RangeCursor(raw.substring(split + 1), raw.substring(0, split));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public BigDecimal price() {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException(encode());
+        }
+    }
+
+    public int stock() {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException(encode());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.sheemab.CQRS.query;
+
+
+import com.sheemab.CQRS.query_response.SearchResult;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * QUERY — full-text search over active products' name, category and
+ * description, with facet counts.
+ *
+ * Every word in `text` is matched as a prefix ("wire mou" finds
+ * "Wireless Mouse"). category and stockStatus narrow the results to one
+ * facet value (drill-down).
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class SearchProductsQuery implements Query<SearchResult>, CoalescedQuery {
+    private final String  text;
+    private final String  category;       // optional facet filter
+    private final String  stockStatus;    // optional facet filter
+    private final Integer size;           // optional page size
+}
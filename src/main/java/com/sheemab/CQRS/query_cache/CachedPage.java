@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.query_cache;
+
+
+import java.util.List;
+
+/**
+ * One list page, ready to write: the UTF-8 JSON body of its ApiResponse,
+ * its ETag and the next-page cursor.
+ *
+ * productIds are the products shown, so the page can be evicted when any
+ * of them changes. nextCursor is null on the last page.
+ */
+public record CachedPage(byte[] body, String etag, String nextCursor, List<String> productIds) {
+}
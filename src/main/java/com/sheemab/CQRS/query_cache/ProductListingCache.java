@@ -0,0 +1,183 @@
+package com.sheemab.CQRS.query_cache;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sheemab.CQRS.config.ProductListingCacheProperties;
+import com.sheemab.CQRS.config.ReplicaRouting;
+import com.sheemab.CQRS.events.ProductViewsProjectedEvent;
+import com.sheemab.CQRS.events.ProductViewsRebuiltEvent;
+import com.sheemab.CQRS.query.Query;
+import com.sheemab.CQRS.query_response.ProductPage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * RESPONSE CACHE — serialized list pages, keyed by their query.
+ *
+ * A hit skips the query, the ProductView → ProductSummary mapping and
+ * Jackson: the controller writes the stored bytes as they are.
+ *
+ * Key points:
+ *   1. Bounded by memory, not entry count: each page weighs its body's
+ *      size in bytes (plus a little for the key and index), up to
+ *      cqrs.cache.product-listing.maximum-bytes.
+ *   2. Invalidation is exact and driven by the projection. A page is
+ *      evicted when ProductViewsProjectedEvent names one of the products
+ *      on it, or says its listing (its category, or all products) gained,
+ *      lost or reordered a product. A price change evicts only the pages
+ *      showing that product. Batches projected by other instances arrive
+ *      through ViewChangeFeed, within cqrs.cache.invalidation.poll-interval.
+ *   3. A page loaded while an invalidation ran may hold rows from before
+ *      it, so it's dropped right after being stored. Pages load from the
+ *      primary, for the same reason as ProductSummaryCache.
+ *   4. Hit / miss / eviction counters are published as cache.* meters
+ *      (cache=productListing); cqrs.cache.product-listing.bytes is the
+ *      memory in use.
+ */
+@Component
+@Slf4j
+public class ProductListingCache {
+
+    private static final String CACHE_NAME      = "productListing";
+    private static final int    ENTRY_OVERHEAD  = 256;      // key, validators, index entries
+
+    private final boolean                      enabled;
+    private final Cache<Query<?>, Entry>       cache;
+    private final Map<String, Set<Entry>>      byProduct  = new ConcurrentHashMap<>();
+    private final Map<String, Set<Entry>>      byCategory = new ConcurrentHashMap<>();
+    private final Set<Entry>                   unfiltered = ConcurrentHashMap.newKeySet();
+    private final AtomicLong                   generation = new AtomicLong();
+
+    public ProductListingCache(ProductListingCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumBytes().toBytes())
+                .weigher((Query<?> query, Entry entry) -> entry.page.body().length + ENTRY_OVERHEAD)
+                .expireAfterWrite(properties.getTtl())
+                .removalListener((Query<?> query, Entry entry, RemovalCause cause) -> unindex(entry))
+                .executor(Runnable::run)                // keep the index in step on the removing thread
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cqrs.cache.product-listing.bytes", cache,
+                        c -> c.policy().eviction().map(e -> (double) e.weightedSize().orElse(0)).orElse(0.0))
+                .description("Memory held by cached list pages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page for the query, or renders it once via the
+     * loader. category is the listing the page belongs to, null for the
+     * listing of all products.
+     */
+    public CachedPage get(Query<ProductPage> query, String category, Supplier<CachedPage> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry hit = cache.getIfPresent(query);
+        if (hit != null) {
+            return hit.page;
+        }
+
+        long stamp = generation.get();
+        Entry entry = new Entry(query, category, ReplicaRouting.onPrimary(loader));
+        index(entry);
+        cache.put(query, entry);
+        if (generation.get() != stamp) {
+            cache.asMap().remove(query, entry);         // may predate the invalidation
+        }
+        return entry.page;
+    }
+
+    // ── Invalidation — after the new view rows are committed ─────────────────
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ProductViewsProjectedEvent event) {
+        generation.incrementAndGet();
+
+        Set<Entry> stale = new HashSet<>();
+        event.getProductIds().forEach(id -> stale.addAll(byProduct.getOrDefault(id, Set.of())));
+        event.getCategories().forEach(c -> stale.addAll(byCategory.getOrDefault(c, Set.of())));
+        if (event.isReordered()) {
+            stale.addAll(unfiltered);
+        }
+
+        stale.forEach(entry -> cache.asMap().remove(entry.query, entry));
+        log.debug("Evicted {} page(s) from {} cache", stale.size(), CACHE_NAME);
+    }
+
+    // A rebuild replaced the whole table — nothing cached is known to be current
+    @EventListener
+    public void on(ProductViewsRebuiltEvent event) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.info("Cleared {} cache after product_views rebuild", CACHE_NAME);
+    }
+
+    // ── Index: which pages show a product, which belong to a listing ─────────
+
+    private void index(Entry entry) {
+        entry.page.productIds().forEach(id -> add(byProduct, id, entry));
+        if (entry.category == null) {
+            unfiltered.add(entry);
+        } else {
+            add(byCategory, entry.category, entry);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        entry.page.productIds().forEach(id -> remove(byProduct, id, entry));
+        if (entry.category == null) {
+            unfiltered.remove(entry);
+        } else {
+            remove(byCategory, entry.category, entry);
+        }
+    }
+
+    // Both under the map's lock for the key, so an add never lands in a set being dropped
+    private static void add(Map<String, Set<Entry>> index, String key, Entry entry) {
+        index.compute(key, (k, entries) -> {
+            Set<Entry> set = entries != null ? entries : ConcurrentHashMap.newKeySet();
+            set.add(entry);
+            return set;
+        });
+    }
+
+    private static void remove(Map<String, Set<Entry>> index, String key, Entry entry) {
+        index.computeIfPresent(key, (k, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    // Equal by identity: a reloaded page is a new Entry, untouched by the old one's removal
+    private static final class Entry {
+
+        final Query<?>   query;
+        final String     category;
+        final CachedPage page;
+
+        Entry(Query<?> query, String category, CachedPage page) {
+            this.query    = query;
+            this.category = category;
+            this.page     = page;
+        }
+    }
+}
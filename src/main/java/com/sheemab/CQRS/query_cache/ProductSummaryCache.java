@@ -0,0 +1,111 @@
+package com.sheemab.CQRS.query_cache;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sheemab.CQRS.config.ProductCacheProperties;
+import com.sheemab.CQRS.events.ProductViewsProjectedEvent;
+import com.sheemab.CQRS.events.ProductViewsRebuiltEvent;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * L1 CACHE — ProductSummary by product id, in front of the read repository.
+ *
+ * Key points:
+ *   1. Size-bounded and TTL-based (Caffeine), so memory stays bounded even
+ *      for a huge catalogue.
+ *   2. Negative entries: a miss for an unknown id is cached (with its own,
+ *      shorter TTL) so repeated 404s don't reach the database.
+ *   3. Invalidation is exact and driven by the projection: when
+ *      ProductViewProjector commits a batch, every id in it is evicted —
+ *      on this instance at once, on the others when ViewChangeFeed polls.
+ *      Caffeine blocks an eviction behind an in-flight load of the same key,
+ *      so a load that read the old row can't survive the eviction.
+ *   4. Hit / miss / eviction counters are published as cache.* meters
+ *      (cache=productById) on /actuator/metrics.
+ */
+@Component
+@Slf4j
+public class ProductSummaryCache {
+
+    private static final String CACHE_NAME = "productById";
+
+    private final Cache<String, Optional<ProductSummary>> cache;
+
+    public ProductSummaryCache(ProductCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new SummaryExpiry(properties))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached summary, or loads it once via the loader.
+     * An empty result means "no active product with this id".
+     */
+    public Optional<ProductSummary> get(String productId,
+                                        Function<String, Optional<ProductSummary>> loader) {
+        return cache.get(productId, loader);
+    }
+
+    // ── Invalidation — after the new view rows are committed ─────────────────
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ProductViewsProjectedEvent event) {
+        cache.invalidateAll(event.getProductIds());
+        log.debug("Evicted {} product(s) from {} cache", event.getProductIds().size(), CACHE_NAME);
+    }
+
+    // A rebuild replaced the whole table — nothing cached is known to be current
+    @EventListener
+    public void on(ProductViewsRebuiltEvent event) {
+        cache.invalidateAll();
+        log.info("Cleared {} cache after product_views rebuild", CACHE_NAME);
+    }
+
+    // ── Per-entry TTL: positive and negative entries expire differently ──────
+
+    private static final class SummaryExpiry implements Expiry<String, Optional<ProductSummary>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        SummaryExpiry(ProductCacheProperties properties) {
+            this.ttlNanos         = properties.getTtl().toNanos();
+            // Not caching negatives = a negative entry expires immediately
+            this.negativeTtlNanos = properties.isCacheNegative()
+                    ? properties.getNegativeTtl().toNanos() : 0;
+        }
+
+        @Override
+        public long expireAfterCreate(String id, Optional<ProductSummary> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, Optional<ProductSummary> value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(id, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, Optional<ProductSummary> value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.sheemab.CQRS.query_cache;
+
+
+import com.sheemab.CQRS.config.CacheInvalidationProperties;
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.config.WorkerThreads;
+import com.sheemab.CQRS.events.ProductViewsProjectedEvent;
+import com.sheemab.CQRS.events.ProductViewsRebuiltEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * CHANGE FEED — carries cache evictions to every instance.
+ *
+ * ProductViewsProjectedEvent is published in-process, on the instance whose
+ * outbox claimer (or projection queue) wrote the batch. Every other
+ * instance would serve its cached pages and summaries, and answer 304s for
+ * them, until their TTL. So:
+ *
+ *   record — inside the projection transaction, the event is also written
+ *            to product_view_changes (one row per product / category), so
+ *            it commits exactly when the view rows do. A rebuild records
+ *            one "rebuilt" row.
+ *   poll   — every pollInterval each instance reads the rows recorded by
+ *            the others and republishes them as remote events; the caches
+ *            evict as they do for their own projections.
+ *
+ * A row's projected_at is the database time its transaction started, so a
+ * poll re-reads the last lookback + pollInterval and skips the rows it has
+ * already seen: a batch that commits late is still found. An instance that
+ * couldn't poll for longer than that may have missed rows, and clears its
+ * caches instead. Rows older than retention are purged.
+ *
+ * cqrs.cache.invalidation.polled counts the remote rows applied.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ViewChangeFeed implements SmartLifecycle {
+
+    private static final String RECORD_SQL = """
+            INSERT INTO product_view_changes (source, product_id, category, all_products, rebuilt, projected_at)
+            VALUES (?, ?, ?, ?, ?, LOCALTIMESTAMP)
+            """;
+
+    private static final String POLL_SQL = """
+            SELECT id, product_id, category, all_products, rebuilt
+            FROM product_view_changes
+            WHERE projected_at >= LOCALTIMESTAMP - ? * INTERVAL '1 millisecond' AND source <> ?
+            ORDER BY id
+            """;
+
+    private static final String PURGE_SQL =
+            "DELETE FROM product_view_changes WHERE projected_at < LOCALTIMESTAMP - ? * INTERVAL '1 millisecond'";
+
+    private static final long PURGE_EVERY_MS = 60_000;
+
+    private final JdbcTemplate                jdbcTemplate;
+    private final ApplicationEventPublisher   eventPublisher;
+    private final CacheInvalidationProperties properties;
+    private final WorkerThreads               workerThreads;
+    private final String                      source = UUID.randomUUID().toString();
+    private final Map<Long, Long>             seen   = new LinkedHashMap<>();    // row id → when first seen (nanoTime)
+    private final Counter                     polled;
+
+    private volatile boolean running;
+    private Thread poller;
+    private long   lastPollAt;
+    private long   lastPurgeAt;
+
+    public ViewChangeFeed(@Qualifier(ReadStore.JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          CacheInvalidationProperties properties,
+                          WorkerThreads workerThreads,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate   = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties     = properties;
+        this.workerThreads  = workerThreads;
+
+        this.polled = Counter.builder("cqrs.cache.invalidation.polled")
+                .description("Changes projected by other instances and evicted here")
+                .register(meterRegistry);
+    }
+
+    // ── Record — in the projection's transaction ─────────────────────────────
+
+    // The condition is checked before the transactional proxy: remote events
+    // are published by the poller, outside any transaction
+    @EventListener(condition = "!#event.remote")
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, propagation = Propagation.MANDATORY)
+    public void on(ProductViewsProjectedEvent event) {
+        List<Object[]> rows = new ArrayList<>();
+        event.getProductIds().forEach(id -> rows.add(new Object[]{ source, id, null, false, false }));
+        event.getCategories().forEach(c -> rows.add(new Object[]{ source, null, c, false, false }));
+        if (event.isReordered()) {
+            rows.add(new Object[]{ source, null, null, true, false });
+        }
+        jdbcTemplate.batchUpdate(RECORD_SQL, rows);
+    }
+
+    @EventListener(condition = "!#event.remote")
+    public void on(ProductViewsRebuiltEvent event) {
+        jdbcTemplate.update(RECORD_SQL, source, null, null, false, true);
+    }
+
+    // ── Poll — apply what the other instances projected ──────────────────────
+
+    private void pollLoop() {
+        long intervalMs = properties.getPollInterval().toMillis();
+        while (running) {
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                poll();
+                purgeIfDue();
+            } catch (RuntimeException ex) {
+                log.warn("Polling product_view_changes failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    void poll() {
+        long windowMs = properties.getLookback().plus(properties.getPollInterval()).toMillis();
+        long now      = System.nanoTime();
+        boolean gap   = lastPollAt != 0 && now - lastPollAt > windowMs * 1_000_000;
+
+        Set<String> productIds = new HashSet<>();
+        Set<String> categories = new HashSet<>();
+        boolean[]   all        = new boolean[2];       // [allProducts, rebuilt]
+        jdbcTemplate.query(POLL_SQL, rs -> {
+            if (seen.putIfAbsent(rs.getLong("id"), now) != null) {
+                return;
+            }
+            polled.increment();
+            String productId = rs.getString("product_id");
+            String category  = rs.getString("category");
+            if (productId != null) productIds.add(productId);
+            if (category != null)  categories.add(category);
+            all[0] |= rs.getBoolean("all_products");
+            all[1] |= rs.getBoolean("rebuilt");
+        }, windowMs, source);
+        lastPollAt = now;
+
+        // Rows drop out of the window within windowMs of being first seen
+        for (Iterator<Long> firstSeen = seen.values().iterator(); firstSeen.hasNext(); ) {
+            if (now - firstSeen.next() <= windowMs * 2_000_000) {
+                break;
+            }
+            firstSeen.remove();
+        }
+
+        if (all[1] || gap) {
+            if (gap) {
+                log.warn("No poll of product_view_changes for over {} ms; clearing read caches", windowMs);
+            }
+            eventPublisher.publishEvent(new ProductViewsRebuiltEvent(0, true));
+        } else if (!productIds.isEmpty() || !categories.isEmpty() || all[0]) {
+            eventPublisher.publishEvent(new ProductViewsProjectedEvent(
+                    Set.copyOf(productIds), Set.copyOf(categories), all[0], true));
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeAt < PURGE_EVERY_MS) {
+            return;
+        }
+        lastPurgeAt = now;
+        int purged = jdbcTemplate.update(PURGE_SQL, properties.getRetention().toMillis());
+        if (purged > 0) {
+            log.debug("Purged {} recorded view change(s)", purged);
+        }
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        poller = workerThreads.start("view-change-feed", this::pollLoop);
+        log.info("View change feed started: source={}, pollInterval={}, lookback={}",
+                source, properties.getPollInterval(), properties.getLookback());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+            try {
+                poller.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            poller = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,51 @@
+package com.sheemab.CQRS.query_entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * READ MODEL — running statistics per category, over active products.
+ *
+ * Maintained by CategoryStatsProjector in the same transaction as the
+ * product_views write, from the difference between each row's old and new
+ * state. Reading a category's stats is one primary-key lookup, however many
+ * products it has.
+ *
+ * The average price is not stored: priceSum / activeCount.
+ */
+@Entity
+@Table(name = "category_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStats {
+
+    @Id
+    private String category;
+
+    @Column(nullable = false)
+    private long activeCount;
+
+    @Column(nullable = false)
+    private long inStockCount;
+
+    @Column(nullable = false)
+    private long totalStock;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal priceSum;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal minPrice;        // null when the category has no active products
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(nullable = false)
+    private LocalDateTime lastUpdatedAt;
+}
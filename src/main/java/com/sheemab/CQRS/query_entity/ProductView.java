@@ -33,7 +33,17 @@ import java.time.LocalDateTime;
         indexes = {
                 @Index(name = "idx_pv_category",   columnList = "category"),
                 @Index(name = "idx_pv_active",     columnList = "active"),
-                @Index(name = "idx_pv_price",      columnList = "price")
+                // Keyset paging: ORDER BY name, id with / without a category filter
+                @Index(name = "idx_pv_active_name_id",          columnList = "active, name, id"),
+                @Index(name = "idx_pv_category_active_name_id", columnList = "category, active, name, id"),
+                // Range queries, keyset-paged on (price | stock, id): the equality
+                // columns first, then the range column, then the tiebreaker, so each
+                // page is ONE index range scan already in ORDER BY order.
+                // (category, active, price, id) also serves the category_stats
+                // min / max price refresh.
+                @Index(name = "idx_pv_active_price_id",          columnList = "active, price, id"),
+                @Index(name = "idx_pv_active_stock_id",          columnList = "active, stock, id"),
+                @Index(name = "idx_pv_category_active_price_id", columnList = "category, active, price, id")
         }
 )
 @Data
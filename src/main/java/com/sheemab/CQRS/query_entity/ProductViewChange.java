@@ -0,0 +1,52 @@
+package com.sheemab.CQRS.query_entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * READ MODEL — what a projection batch (or a rebuild) changed, recorded in
+ * the same read-store transaction as the product_views write.
+ *
+ * The in-process ProductViewsProjectedEvent only reaches the instance that
+ * projected the batch; the other instances read these rows (ViewChangeFeed)
+ * to evict their caches. One row per changed product, per listing category
+ * and for the listing of all products, so each row names one thing to evict.
+ *
+ * Written and read with plain JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(
+        name = "product_view_changes",
+        indexes = {
+                @Index(name = "idx_view_changes_projected", columnList = "projected_at")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductViewChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String source;              // the recording instance, which evicted already
+
+    private String productId;           // a product whose row was written
+
+    private String category;            // a category listing that changed
+
+    @Column(nullable = false)
+    private boolean allProducts;        // the listing of all products changed
+
+    @Column(nullable = false)
+    private boolean rebuilt;            // the whole table was rebuilt
+
+    @Column(nullable = false)
+    private LocalDateTime projectedAt;
+}
@@ -0,0 +1,50 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.query.ExportProductsQuery;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * QUERY HANDLER — handles ExportProductsQuery.
+ *
+ * Instead of returning a List, it pushes each ProductSummary to the query's
+ * sink as it comes off the database cursor. The caller (the export endpoint) writes
+ * it out immediately, so only one row is in memory at a time.
+ *
+ * The read-only transaction must stay open for the whole export:
+ * PostgreSQL only honours the fetch size inside a transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExportProductsQueryHandler implements QueryHandler<ExportProductsQuery, Long> {
+
+    private final ProductReadRepository readRepository;
+
+    @Override
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, readOnly = true)
+    public Long handle(ExportProductsQuery query) {
+        log.debug("Handling ExportProductsQuery: category={}, updatedSince={}",
+                query.getCategory(), query.getUpdatedSince());
+
+        long exported = 0;
+        try (Stream<ProductSummary> rows =
+                     readRepository.streamForExport(query.getCategory(), query.getUpdatedSince())) {
+            for (ProductSummary summary : (Iterable<ProductSummary>) rows::iterator) {
+                query.getSink().accept(summary);
+                exported++;
+            }
+        }
+
+        log.debug("ExportProductsQuery streamed {} products", exported);
+        return exported;
+    }
+}
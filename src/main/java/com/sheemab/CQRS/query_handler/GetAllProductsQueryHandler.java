@@ -1,14 +1,17 @@
 package com.sheemab.CQRS.query_handler;
 
 
+import com.sheemab.CQRS.config.ReadStore;
 import com.sheemab.CQRS.query.GetAllProductsQuery;
-import com.sheemab.CQRS.query_response.ProductSummary;
+import com.sheemab.CQRS.query.ProductCursor;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_response.ProductPage;
 import com.sheemab.CQRS.repository.ProductReadRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,47 +21,71 @@ import java.util.List;
 /**
  * QUERY HANDLER — handles GetAllProductsQuery.
  *
- * Supports optional pagination (page + size).
- * Defaults to page 0, size 20 if not provided.
- * Always sorted by name ascending for consistent results.
+ * Supports an optional category filter and two paging modes:
+ *   - cursor given  → keyset paging on (name, id); constant cost per page
+ *   - page given    → offset paging via Slice (no COUNT(*) query)
+ *   - neither       → first keyset page
+ * Size defaults to 20 and is capped at 200.
+ * Always sorted by name, then id, so the order is total and stable.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class GetAllProductsQueryHandler {
+public class GetAllProductsQueryHandler implements QueryHandler<GetAllProductsQuery, ProductPage> {
 
     private final ProductReadRepository readRepository;
 
-    private static final int DEFAULT_PAGE = 0;
-    private static final int DEFAULT_SIZE = 20;
-
-    @Transactional(readOnly = true)
-    public List<ProductSummary> handle(GetAllProductsQuery query) {
-        log.debug("Handling GetAllProductsQuery: page={}, size={}, category={}",
-                query.getPage(), query.getSize(), query.getCategory());
-
-        int page = query.getPage() != null ? query.getPage() : DEFAULT_PAGE;
-        int size = query.getSize() != null ? query.getSize() : DEFAULT_SIZE;
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-
-        Page<ProductSummary> result = readRepository
-                .findByActiveTrue(pageable)
-                .map(view -> ProductSummary.builder()
-                        .id(view.getId())
-                        .name(view.getName())
-                        .category(view.getCategory())
-                        .price(view.getPrice())
-                        .stock(view.getStock())
-                        .stockStatus(view.getStockStatus())
-                        .description(view.getDescription())
-                        .createdAt(view.getCreatedAt())
-                        .lastUpdatedAt(view.getLastUpdatedAt())
-                        .build());
-
-        log.debug("GetAllProductsQuery returned {} products (total={})",
-                result.getNumberOfElements(), result.getTotalElements());
-
-        return result.getContent();
+    private static final int  DEFAULT_SIZE = 20;
+    private static final int  MAX_SIZE     = 200;
+    private static final Sort ORDER        = Sort.by("name").ascending().and(Sort.by("id").ascending());
+
+    @Override
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, readOnly = true)
+    public ProductPage handle(GetAllProductsQuery query) {
+        log.debug("Handling GetAllProductsQuery: page={}, size={}, category={}, cursor={}",
+                query.getPage(), query.getSize(), query.getCategory(), query.getCursor());
+
+        int size = query.getSize() != null ? Math.clamp(query.getSize(), 1, MAX_SIZE) : DEFAULT_SIZE;
+
+        ProductPage result = (query.getCursor() == null && query.getPage() != null)
+                ? offsetPage(query.getCategory(), query.getPage(), size)
+                : keysetPage(query.getCategory(), query.getCursor(), size);
+
+        log.debug("GetAllProductsQuery returned {} products (hasNext={})",
+                result.getItems().size(), result.getNextCursor() != null);
+
+        return result;
+    }
+
+    // ── Keyset: fetch size + 1 rows after the cursor; the extra row = hasNext ─
+    private ProductPage keysetPage(String category, String cursorToken, int size) {
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<ProductView> rows;
+
+        if (cursorToken == null) {
+            rows = category == null
+                    ? readRepository.findByActiveTrueOrderByNameAscIdAsc(limit)
+                    : readRepository.findByCategoryAndActiveTrueOrderByNameAscIdAsc(category, limit);
+        } else {
+            ProductCursor cursor = ProductCursor.decode(cursorToken);
+            rows = category == null
+                    ? readRepository.findActiveAfter(cursor.name(), cursor.id(), limit)
+                    : readRepository.findActiveInCategoryAfter(category, cursor.name(), cursor.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        return ProductSummaryMapper.toPage(hasNext ? rows.subList(0, size) : rows, hasNext);
+    }
+
+    // ── Offset: Slice reads size + 1 rows and skips the COUNT(*) ──────────────
+    private ProductPage offsetPage(String category, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), size, ORDER);
+
+        Slice<ProductView> slice = category == null
+                ? readRepository.findByActiveTrue(pageable)
+                : readRepository.findByCategoryAndActiveTrue(category, pageable);
+
+        // Even offset pages hand out a cursor, so clients can switch to keyset
+        return ProductSummaryMapper.toPage(slice.getContent(), slice.hasNext());
     }
 }
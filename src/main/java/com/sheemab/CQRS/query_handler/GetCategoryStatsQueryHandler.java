@@ -0,0 +1,56 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.query.GetCategoryStatsQuery;
+import com.sheemab.CQRS.query_entity.CategoryStats;
+import com.sheemab.CQRS.query_response.CategoryStatsSummary;
+import com.sheemab.CQRS.repository.CategoryStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * QUERY HANDLER — handles GetCategoryStatsQuery.
+ *
+ * One primary-key lookup on the pre-aggregated category_stats table —
+ * the cost does not depend on how many products the category holds.
+ * An unknown category is simply one with no products: all counts zero.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetCategoryStatsQueryHandler implements QueryHandler<GetCategoryStatsQuery, CategoryStatsSummary> {
+
+    private final CategoryStatsRepository statsRepository;
+
+    @Override
+    public CategoryStatsSummary handle(GetCategoryStatsQuery query) {
+        log.debug("Handling GetCategoryStatsQuery: category={}", query.getCategory());
+
+        return statsRepository.findById(query.getCategory())
+                .map(GetCategoryStatsQueryHandler::toSummary)
+                .orElseGet(() -> CategoryStatsSummary.builder()
+                        .category(query.getCategory())
+                        .build());
+    }
+
+    private static CategoryStatsSummary toSummary(CategoryStats stats) {
+        BigDecimal avgPrice = stats.getActiveCount() > 0
+                ? stats.getPriceSum().divide(BigDecimal.valueOf(stats.getActiveCount()), 2, RoundingMode.HALF_UP)
+                : null;
+
+        return CategoryStatsSummary.builder()
+                .category(stats.getCategory())
+                .activeCount(stats.getActiveCount())
+                .inStockCount(stats.getInStockCount())
+                .totalStock(stats.getTotalStock())
+                .minPrice(stats.getMinPrice())
+                .maxPrice(stats.getMaxPrice())
+                .avgPrice(avgPrice)
+                .lastUpdatedAt(stats.getLastUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.query.GetLowStockProductsQuery;
+import com.sheemab.CQRS.query.RangeCursor;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_response.ProductPage;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * QUERY HANDLER — handles GetLowStockProductsQuery.
+ *
+ * Keyset paging on (stock, id) over the (active, stock, id) index — one
+ * index range scan of size + 1 rows per page.
+ * Size defaults to 100 and is capped at 1000.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetLowStockProductsQueryHandler implements QueryHandler<GetLowStockProductsQuery, ProductPage> {
+
+    private final ProductReadRepository readRepository;
+
+    private static final int DEFAULT_SIZE = 100;
+    private static final int MAX_SIZE     = 1_000;
+
+    @Override
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, readOnly = true)
+    public ProductPage handle(GetLowStockProductsQuery query) {
+        log.debug("Handling GetLowStockProductsQuery: threshold={}, cursor={}",
+                query.getThreshold(), query.getCursor());
+
+        int size = query.getSize() != null ? Math.clamp(query.getSize(), 1, MAX_SIZE) : DEFAULT_SIZE;
+
+        // First page starts before any stock level
+        int    afterStock = Integer.MIN_VALUE;
+        String afterId    = "";
+        if (query.getCursor() != null) {
+            RangeCursor cursor = RangeCursor.decode(query.getCursor());
+            afterStock = cursor.stock();
+            afterId    = cursor.id();
+        }
+
+        List<ProductView> rows = readRepository.findActiveWithStockBelowAfter(
+                query.getThreshold(), afterStock, afterId, PageRequest.ofSize(size + 1));
+
+        boolean hasNext = rows.size() > size;
+        return ProductSummaryMapper.toPage(hasNext ? rows.subList(0, size) : rows, hasNext,
+                last -> RangeCursor.of(last.getStock(), last.getId()).encode());
+    }
+}
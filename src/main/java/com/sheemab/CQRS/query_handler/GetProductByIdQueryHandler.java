@@ -1,15 +1,15 @@
 package com.sheemab.CQRS.query_handler;
 
 
+import com.sheemab.CQRS.config.ReplicaRouting;
 import com.sheemab.CQRS.exception.ProductNotFoundException;
 import com.sheemab.CQRS.query.GetProductByIdQuery;
-import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_cache.ProductSummaryCache;
 import com.sheemab.CQRS.query_response.ProductSummary;
 import com.sheemab.CQRS.repository.ProductReadRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * QUERY HANDLER — handles GetProductByIdQuery.
@@ -21,39 +21,30 @@ import org.springframework.transaction.annotation.Transactional;
  *   2. Returns a ProductSummary DTO, not the raw ProductView entity.
  *      The internal model and the API response stay decoupled.
  *
- *   3. @Transactional(readOnly = true) — tells JPA this is a read-only
- *      operation. Hibernate skips dirty-checking, Spring may route to
- *      a read replica in a production setup. Zero writes can happen here.
+ *   3. Served from ProductSummaryCache first. Only a miss reaches the
+ *      repository, whose finder runs in its own read-only transaction —
+ *      so a cache hit never opens a transaction or borrows a connection.
+ *
+ *   4. Misses load from the primary even when a read replica is configured:
+ *      the cache is evicted when the projection commits on the primary, and
+ *      a reload from a lagging replica would pin the old row for a full TTL.
+ *      With hits served from memory, the cache is this query's replica.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class GetProductByIdQueryHandler {
+public class GetProductByIdQueryHandler implements QueryHandler<GetProductByIdQuery, ProductSummary> {
 
     private final ProductReadRepository readRepository;
+    private final ProductSummaryCache   cache;
 
-    @Transactional(readOnly = true)
+    @Override
     public ProductSummary handle(GetProductByIdQuery query) {
         log.debug("Handling GetProductByIdQuery: productId={}", query.getProductId());
 
-        ProductView view = readRepository.findByIdAndActiveTrue(query.getProductId())
+        return cache.get(query.getProductId(), id -> ReplicaRouting.onPrimary(() -> readRepository
+                        .findByIdAndActiveTrue(id)
+                        .map(ProductSummaryMapper::toSummary)))
                 .orElseThrow(() -> new ProductNotFoundException(query.getProductId()));
-
-        return toSummary(view);
-    }
-
-    // ── Mapping — keeps JPA entity internals out of the API response ──────────
-    private ProductSummary toSummary(ProductView view) {
-        return ProductSummary.builder()
-                .id(view.getId())
-                .name(view.getName())
-                .category(view.getCategory())
-                .price(view.getPrice())
-                .stock(view.getStock())
-                .stockStatus(view.getStockStatus())
-                .description(view.getDescription())
-                .createdAt(view.getCreatedAt())
-                .lastUpdatedAt(view.getLastUpdatedAt())
-                .build();
     }
 }
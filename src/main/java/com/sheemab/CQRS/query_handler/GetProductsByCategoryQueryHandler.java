@@ -1,11 +1,16 @@
 package com.sheemab.CQRS.query_handler;
 
 
+import com.sheemab.CQRS.config.ReadStore;
 import com.sheemab.CQRS.query.GetProductsByCategoryQuery;
-import com.sheemab.CQRS.query_response.ProductSummary;
+import com.sheemab.CQRS.query.ProductCursor;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_response.ProductPage;
 import com.sheemab.CQRS.repository.ProductReadRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,32 +18,39 @@ import java.util.List;
 
 /**
  * QUERY HANDLER — handles GetProductsByCategoryQuery.
+ *
+ * Keyset paging on (name, id) over the (category, active, name, id) index:
+ * each page reads at most size + 1 rows, whether the category holds ten
+ * products or 400k. Size defaults to 100 and is capped at 1000.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class GetProductsByCategoryQueryHandler {
+public class GetProductsByCategoryQueryHandler implements QueryHandler<GetProductsByCategoryQuery, ProductPage> {
 
     private final ProductReadRepository readRepository;
 
-    @Transactional(readOnly = true)
-    public List<ProductSummary> handle(GetProductsByCategoryQuery query) {
-        log.debug("Handling GetProductsByCategoryQuery: category={}", query.getCategory());
-
-        return readRepository
-                .findByCategoryAndActiveTrue(query.getCategory())
-                .stream()
-                .map(view -> ProductSummary.builder()
-                        .id(view.getId())
-                        .name(view.getName())
-                        .category(view.getCategory())
-                        .price(view.getPrice())
-                        .stock(view.getStock())
-                        .stockStatus(view.getStockStatus())
-                        .description(view.getDescription())
-                        .createdAt(view.getCreatedAt())
-                        .lastUpdatedAt(view.getLastUpdatedAt())
-                        .build())
-                .toList();
+    private static final int DEFAULT_SIZE = 100;
+    private static final int MAX_SIZE     = 1_000;
+
+    @Override
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, readOnly = true)
+    public ProductPage handle(GetProductsByCategoryQuery query) {
+        log.debug("Handling GetProductsByCategoryQuery: category={}, size={}, cursor={}",
+                query.getCategory(), query.getSize(), query.getCursor());
+
+        int      size  = query.getSize() != null ? Math.clamp(query.getSize(), 1, MAX_SIZE) : DEFAULT_SIZE;
+        Pageable limit = PageRequest.ofSize(size + 1);
+
+        List<ProductView> rows;
+        if (query.getCursor() == null) {
+            rows = readRepository.findByCategoryAndActiveTrueOrderByNameAscIdAsc(query.getCategory(), limit);
+        } else {
+            ProductCursor cursor = ProductCursor.decode(query.getCursor());
+            rows = readRepository.findActiveInCategoryAfter(query.getCategory(), cursor.name(), cursor.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        return ProductSummaryMapper.toPage(hasNext ? rows.subList(0, size) : rows, hasNext);
     }
 }
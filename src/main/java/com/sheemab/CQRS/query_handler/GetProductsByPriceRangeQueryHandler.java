@@ -0,0 +1,70 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.query.GetProductsByPriceRangeQuery;
+import com.sheemab.CQRS.query.RangeCursor;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_response.ProductPage;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * QUERY HANDLER — handles GetProductsByPriceRangeQuery.
+ *
+ * Keyset paging on (price, id):
+ *   - no category → (active, price, id) index
+ *   - category    → (category, active, price, id) index
+ * Either way one index range scan of size + 1 rows per page.
+ * Size defaults to 100 and is capped at 1000.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetProductsByPriceRangeQueryHandler implements QueryHandler<GetProductsByPriceRangeQuery, ProductPage> {
+
+    private final ProductReadRepository readRepository;
+
+    private static final int        DEFAULT_SIZE = 100;
+    private static final int        MAX_SIZE     = 1_000;
+    // Largest value of ProductView.price: NUMERIC(10, 2)
+    private static final BigDecimal MAX_PRICE    = new BigDecimal("99999999.99");
+
+    @Override
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, readOnly = true)
+    public ProductPage handle(GetProductsByPriceRangeQuery query) {
+        log.debug("Handling GetProductsByPriceRangeQuery: category={}, min={}, max={}, cursor={}",
+                query.getCategory(), query.getMinPrice(), query.getMaxPrice(), query.getCursor());
+
+        int        size     = query.getSize() != null ? Math.clamp(query.getSize(), 1, MAX_SIZE) : DEFAULT_SIZE;
+        BigDecimal minPrice = query.getMinPrice() != null ? query.getMinPrice() : BigDecimal.ZERO;
+        BigDecimal maxPrice = query.getMaxPrice() != null ? query.getMaxPrice() : MAX_PRICE;
+
+        // First page starts just before (minPrice, any id)
+        BigDecimal afterPrice = minPrice;
+        String     afterId    = "";
+        if (query.getCursor() != null) {
+            RangeCursor cursor = RangeCursor.decode(query.getCursor());
+            afterPrice = cursor.price();
+            afterId    = cursor.id();
+        }
+
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<ProductView> rows = query.getCategory() == null
+                ? readRepository.findActiveInPriceRangeAfter(minPrice, maxPrice, afterPrice, afterId, limit)
+                : readRepository.findActiveInCategoryAndPriceRangeAfter(
+                        query.getCategory(), minPrice, maxPrice, afterPrice, afterId, limit);
+
+        boolean hasNext = rows.size() > size;
+        return ProductSummaryMapper.toPage(hasNext ? rows.subList(0, size) : rows, hasNext,
+                last -> RangeCursor.of(last.getPrice(), last.getId()).encode());
+    }
+}
@@ -0,0 +1,57 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.query.ProductCursor;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_response.ProductPage;
+import com.sheemab.CQRS.query_response.ProductSummary;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Mapping — keeps JPA entity internals out of the API response.
+ *
+ * The one place that turns a ProductView into a ProductSummary (and a page
+ * of them into a ProductPage), shared by every query handler so the
+ * response shape can't drift between endpoints.
+ */
+public final class ProductSummaryMapper {
+
+    private ProductSummaryMapper() {
+    }
+
+    public static ProductSummary toSummary(ProductView view) {
+        return ProductSummary.builder()
+                .id(view.getId())
+                .name(view.getName())
+                .category(view.getCategory())
+                .price(view.getPrice())
+                .stock(view.getStock())
+                .stockStatus(view.getStockStatus())
+                .description(view.getDescription())
+                .createdAt(view.getCreatedAt())
+                .lastUpdatedAt(view.getLastUpdatedAt())
+                .build();
+    }
+
+    // One page of views ordered by (name, id); the cursor points past the last row
+    public static ProductPage toPage(List<ProductView> views, boolean hasNext) {
+        return toPage(views, hasNext, last -> new ProductCursor(last.getName(), last.getId()).encode());
+    }
+
+    // Same for any other ordering: cursorOf encodes the last row's sort key
+    public static ProductPage toPage(List<ProductView> views, boolean hasNext,
+                                     Function<ProductView, String> cursorOf) {
+        List<ProductSummary> items = views.stream()
+                .map(ProductSummaryMapper::toSummary)
+                .toList();
+
+        String nextCursor = hasNext && !views.isEmpty() ? cursorOf.apply(views.getLast()) : null;
+
+        return ProductPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.query.Query;
+
+/**
+ * Contract for every query handler. Any Spring bean implementing it is
+ * registered with the QueryBus at startup under its query type Q.
+ */
+public interface QueryHandler<Q extends Query<R>, R> {
+
+    R handle(Q query);
+}
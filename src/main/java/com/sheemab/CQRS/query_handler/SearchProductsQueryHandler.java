@@ -0,0 +1,87 @@
+package com.sheemab.CQRS.query_handler;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.exception.SearchUnavailableException;
+import com.sheemab.CQRS.query.SearchProductsQuery;
+import com.sheemab.CQRS.query_response.SearchResult;
+import com.sheemab.CQRS.repository.ProductSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * QUERY HANDLER — handles SearchProductsQuery.
+ *
+ * Turns the user's text into a prefix tsquery ("wire mou" → wire:* & mou:*)
+ * and runs two index-backed queries: the top `size` matches by relevance,
+ * and the facet counts. Both look at no more than cqrs.search.max-matches
+ * matching rows; matchesCapped tells the client when there were more.
+ * A one-character term is matched as a whole word, not as a prefix, so
+ * "w" doesn't pull in a large share of the catalogue. Only letters and
+ * digits reach the tsquery, so user input can never produce a tsquery
+ * syntax error.
+ *
+ * Size defaults to 20 and is capped at 100.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchProductsQueryHandler implements QueryHandler<SearchProductsQuery, SearchResult> {
+
+    private final ProductSearchRepository searchRepository;
+
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE     = 100;
+    private static final int MAX_TERMS    = 8;
+    private static final int MIN_PREFIX   = 2;
+
+    @Override
+    @Transactional(transactionManager = ReadStore.TRANSACTION_MANAGER, readOnly = true)
+    public SearchResult handle(SearchProductsQuery query) {
+        log.debug("Handling SearchProductsQuery: text={}, category={}, stockStatus={}",
+                query.getText(), query.getCategory(), query.getStockStatus());
+
+        if (!searchRepository.isAvailable()) {
+            throw new SearchUnavailableException(searchRepository.getDatabase());
+        }
+
+        String tsQuery = toPrefixQuery(query.getText());
+        if (tsQuery.isEmpty()) {
+            return SearchResult.builder()
+                    .items(List.of())
+                    .categoryFacets(Map.of())
+                    .stockStatusFacets(Map.of())
+                    .build();
+        }
+
+        int size = query.getSize() != null ? Math.clamp(query.getSize(), 1, MAX_SIZE) : DEFAULT_SIZE;
+        ProductSearchRepository.Facets facets =
+                searchRepository.facets(tsQuery, query.getCategory(), query.getStockStatus());
+
+        return SearchResult.builder()
+                .items(searchRepository.search(tsQuery, query.getCategory(), query.getStockStatus(), size))
+                .categoryFacets(facets.categories())
+                .stockStatusFacets(facets.stockStatuses())
+                .matchesCapped(facets.capped())
+                .build();
+    }
+
+    static String toPrefixQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> term.length() >= MIN_PREFIX ? term + ":*" : term)
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,29 @@
+package com.sheemab.CQRS.query_response;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * QUERY RESPONSE DTO — statistics over the ACTIVE products of one category.
+ * Prices are null when the category has no active products.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStatsSummary {
+    private String        category;
+    private long          activeCount;
+    private long          inStockCount;
+    private long          totalStock;
+    private BigDecimal    minPrice;
+    private BigDecimal    maxPrice;
+    private BigDecimal    avgPrice;
+    private LocalDateTime lastUpdatedAt;
+}
@@ -0,0 +1,24 @@
+package com.sheemab.CQRS.query_response;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * QUERY RESPONSE — one page of products plus where to continue from.
+ *
+ * nextCursor is null on the last page. No total count is carried on
+ * purpose: counting a large catalogue costs more than fetching a page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<ProductSummary> items;
+    private String               nextCursor;
+}
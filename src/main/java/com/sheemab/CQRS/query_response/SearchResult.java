@@ -0,0 +1,29 @@
+package com.sheemab.CQRS.query_response;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * QUERY RESPONSE — the best-ranked matches plus facet counts.
+ *
+ * Facets map each category / stock status to its number of matches,
+ * counted over every match, not just the items returned. A search with
+ * more than cqrs.search.max-matches matches ranks and counts only the
+ * first that many; matchesCapped says when that happened.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private List<ProductSummary> items;
+    private Map<String, Long>    categoryFacets;
+    private Map<String, Long>    stockStatusFacets;
+    private boolean              matchesCapped;
+}
@@ -0,0 +1,14 @@
+package com.sheemab.CQRS.repository;
+
+
+import com.sheemab.CQRS.query_entity.CategoryStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * READ REPOSITORY — category_stats, looked up by category (primary key).
+ * Written only by CategoryStatsProjector.
+ */
+@Repository
+public interface CategoryStatsRepository extends JpaRepository<CategoryStats, String> {
+}
@@ -0,0 +1,17 @@
+package com.sheemab.CQRS.repository;
+
+
+import com.sheemab.CQRS.outbox.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * OUTBOX REPOSITORY — used by the command side to record events
+ * inside the command transaction.
+ *
+ * Claiming and completing rows is done by OutboxRelay with plain JDBC,
+ * because it needs FOR UPDATE SKIP LOCKED and batched updates.
+ */
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+}
@@ -2,13 +2,22 @@ package com.sheemab.CQRS.repository;
 
 
 import com.sheemab.CQRS.query_entity.ProductView;
-import org.springframework.data.domain.Page;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * READ REPOSITORY — exclusively used by the query side.
@@ -18,6 +27,13 @@ import java.util.Optional;
  *   The write side (ProductWriteRepository) NEVER touches this table directly.
  *   The product_views table is populated and maintained ONLY by
  *   the ProjectionEventListener responding to domain events.
+ *
+ * Listing queries come in two flavours:
+ *   - keyset ("seek"): WHERE (name, id) > (:name, :id) ORDER BY name, id,
+ *     served straight from the (active, name, id) / (category, active, name, id)
+ *     indexes — cost does not grow with page depth
+ *   - offset: returns a Slice, which fetches size + 1 rows instead of
+ *     running an extra COUNT(*) like Page does
  */
 @Repository
 public interface ProductReadRepository extends JpaRepository<ProductView, String> {
@@ -25,11 +41,109 @@ public interface ProductReadRepository extends JpaRepository<ProductView, String
     // Find single active product
     Optional<ProductView> findByIdAndActiveTrue(String id);
 
-    // Find all active products (paginated)
-    Page<ProductView> findByActiveTrue(Pageable pageable);
+    // Find all active products (offset paging, no count query)
+    Slice<ProductView> findByActiveTrue(Pageable pageable);
+
+    // Filter by category (offset paging, no count query)
+    Slice<ProductView> findByCategoryAndActiveTrue(String category, Pageable pageable);
+
+    // ── Keyset paging: first page ─────────────────────────────────────────────
+
+    List<ProductView> findByActiveTrueOrderByNameAscIdAsc(Pageable pageable);
+
+    List<ProductView> findByCategoryAndActiveTrueOrderByNameAscIdAsc(String category, Pageable pageable);
+
+    // ── Keyset paging: every page after a cursor ──────────────────────────────
+    // A row comparison, not name > :name OR (name = :name AND id > :id):
+    // only the former is an index start point, so a deep page doesn't scan
+    // the index from the beginning.
+
+    @Query("""
+            SELECT v FROM ProductView v
+            WHERE v.active = true
+              AND (v.name, v.id) > (:name, :id)
+            ORDER BY v.name, v.id
+            """)
+    List<ProductView> findActiveAfter(@Param("name") String name,
+                                      @Param("id") String id,
+                                      Pageable pageable);
+
+    @Query("""
+            SELECT v FROM ProductView v
+            WHERE v.category = :category
+              AND v.active = true
+              AND (v.name, v.id) > (:name, :id)
+            ORDER BY v.name, v.id
+            """)
+    List<ProductView> findActiveInCategoryAfter(@Param("category") String category,
+                                                @Param("name") String name,
+                                                @Param("id") String id,
+                                                Pageable pageable);
+
+    // ── Range queries, keyset-paged on (price | stock, id) ────────────────────
+    // The row comparison (x, id) > (:afterX, :afterId) is an index bound in
+    // PostgreSQL, so together with the range it is a single index range scan.
+    // First page: afterX = the lower bound (or MIN_VALUE), afterId = "".
+
+    @Query("""
+            SELECT v FROM ProductView v
+            WHERE v.active = true
+              AND v.price BETWEEN :minPrice AND :maxPrice
+              AND (v.price, v.id) > (:afterPrice, :afterId)
+            ORDER BY v.price, v.id
+            """)
+    List<ProductView> findActiveInPriceRangeAfter(@Param("minPrice") BigDecimal minPrice,
+                                                  @Param("maxPrice") BigDecimal maxPrice,
+                                                  @Param("afterPrice") BigDecimal afterPrice,
+                                                  @Param("afterId") String afterId,
+                                                  Pageable pageable);
+
+    @Query("""
+            SELECT v FROM ProductView v
+            WHERE v.category = :category
+              AND v.active = true
+              AND v.price BETWEEN :minPrice AND :maxPrice
+              AND (v.price, v.id) > (:afterPrice, :afterId)
+            ORDER BY v.price, v.id
+            """)
+    List<ProductView> findActiveInCategoryAndPriceRangeAfter(@Param("category") String category,
+                                                             @Param("minPrice") BigDecimal minPrice,
+                                                             @Param("maxPrice") BigDecimal maxPrice,
+                                                             @Param("afterPrice") BigDecimal afterPrice,
+                                                             @Param("afterId") String afterId,
+                                                             Pageable pageable);
+
+    @Query("""
+            SELECT v FROM ProductView v
+            WHERE v.active = true
+              AND v.stock < :threshold
+              AND (v.stock, v.id) > (:afterStock, :afterId)
+            ORDER BY v.stock, v.id
+            """)
+    List<ProductView> findActiveWithStockBelowAfter(@Param("threshold") int threshold,
+                                                    @Param("afterStock") int afterStock,
+                                                    @Param("afterId") String afterId,
+                                                    Pageable pageable);
+
+    // ── Streaming export ──────────────────────────────────────────────────────
+    // Rows are read through a forward-only cursor (fetch size) and mapped
+    // straight to ProductSummary, so no entity enters the persistence context
+    // and memory stays flat however many rows are exported.
+    // Must be consumed inside a transaction and closed by the caller.
 
-    // Filter by category
-    List<ProductView> findByCategoryAndActiveTrue(String category);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.sheemab.CQRS.query_response.ProductSummary(
+                v.id, v.name, v.category, v.price, v.stock, v.stockStatus,
+                v.description, v.createdAt, v.lastUpdatedAt)
+            FROM ProductView v
+            WHERE v.active = true
+              AND (:category IS NULL OR v.category = :category)
+              AND (:updatedSince IS NULL OR v.lastUpdatedAt >= :updatedSince)
+            ORDER BY v.id
+            """)
+    Stream<ProductSummary> streamForExport(@Param("category") String category,
+                                           @Param("updatedSince") LocalDateTime updatedSince);
 
     // Check if view exists (used by projection listener)
     boolean existsById(String id);
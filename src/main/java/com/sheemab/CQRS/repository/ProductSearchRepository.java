@@ -0,0 +1,227 @@
+package com.sheemab.CQRS.repository;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.config.SearchProperties;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * READ REPOSITORY — full-text search on product_views (PostgreSQL).
+ *
+ * The inverted index is PostgreSQL's own: a generated tsvector column
+ * (name weighted A, category B, description C) with a GIN index. Because
+ * the column is GENERATED ... STORED, every projector write to a row
+ * re-indexes exactly that row — the index is kept up to date
+ * incrementally with no extra code on the projection path.
+ *
+ * The column and index are not created at startup: adding the column
+ * rewrites product_views under an exclusive lock, so it is an explicit
+ * admin task (SearchIndexInstaller, /actuator/searchindex). The JPA entity
+ * does not map them, so Hibernate's schema tool leaves them alone. Search
+ * is off until both exist and the index is valid; while off, the schema is
+ * re-read at most every RECHECK_INTERVAL, so an install run through any
+ * instance turns search on everywhere.
+ *
+ * Cost is bounded: at most cqrs.search.max-matches matching rows are read,
+ * ranked and counted for facets, so a broad prefix over a large catalogue
+ * costs the GIN posting lists plus ≤ maxMatches heap rows, not every match.
+ * Up to that many matches the top results and facet counts are exact;
+ * beyond it they cover the first maxMatches rows the index returns, and
+ * Facets.capped says so — the client should narrow the search.
+ */
+@Repository
+@Slf4j
+public class ProductSearchRepository implements SmartInitializingSingleton {
+
+    static final String ADD_COLUMN_SQL = """
+            ALTER TABLE product_views ADD COLUMN IF NOT EXISTS search_vector tsvector
+                GENERATED ALWAYS AS (
+                    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                    setweight(to_tsvector('simple', coalesce(category, '')), 'B') ||
+                    setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+                ) STORED
+            """;
+
+    static final String ADD_INDEX_SQL =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pv_search ON product_views USING GIN (search_vector)";
+
+    static final String DROP_INDEX_SQL = "DROP INDEX CONCURRENTLY IF EXISTS idx_pv_search";
+
+    // No index row: missing. indisvalid = false: a CREATE INDEX CONCURRENTLY
+    // that didn't finish, which IF NOT EXISTS would skip for good
+    private static final String SCHEMA_SQL = """
+            SELECT EXISTS (SELECT 1 FROM pg_attribute
+                           WHERE attrelid = to_regclass('product_views')
+                             AND attname = 'search_vector'
+                             AND NOT attisdropped) AS has_column,
+                   (SELECT indisvalid FROM pg_index
+                    WHERE indexrelid = to_regclass('idx_pv_search')) AS index_valid
+            """;
+
+    private static final Duration RECHECK_INTERVAL = Duration.ofSeconds(30);
+
+    private static final String MATCHES = """
+            FROM product_views v
+            WHERE v.active = TRUE
+              AND v.search_vector @@ to_tsquery('simple', ?)
+            """;
+
+    private static final RowMapper<ProductSummary> SUMMARY_MAPPER = (rs, rowNum) -> ProductSummary.builder()
+            .id(rs.getString("id"))
+            .name(rs.getString("name"))
+            .category(rs.getString("category"))
+            .price(rs.getBigDecimal("price"))
+            .stock(rs.getInt("stock"))
+            .stockStatus(rs.getString("stock_status"))
+            .description(rs.getString("description"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .lastUpdatedAt(rs.getTimestamp("last_updated_at").toLocalDateTime())
+            .build();
+
+    public record Facets(Map<String, Long> categories, Map<String, Long> stockStatuses, boolean capped) {
+    }
+
+    public enum IndexState { MISSING, INVALID, VALID }
+
+    public record Schema(boolean searchColumn, IndexState index) {
+
+        public boolean ready() {
+            return searchColumn && index == IndexState.VALID;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int          maxMatches;
+    private final boolean      installOnStartup;
+    private volatile String    database;
+    private volatile boolean   available;
+    private volatile long      nextCheck;
+
+    public ProductSearchRepository(@Qualifier(ReadStore.JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                                   SearchProperties properties) {
+        this.jdbcTemplate     = jdbcTemplate;
+        this.maxMatches       = properties.getMaxMatches();
+        this.installOnStartup = properties.isInstallOnStartup();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!isPostgreSQL()) {
+            log.warn("Full-text product search disabled: needs PostgreSQL, running on {}", database);
+            return;
+        }
+        if (!recheck() && !installOnStartup) {
+            log.warn("Full-text product search is off until its column and index are installed "
+                    + "(POST /actuator/searchindex): {}", schema());
+        }
+    }
+
+    public boolean isAvailable() {
+        if (!available && isPostgreSQL() && System.nanoTime() - nextCheck >= 0) {
+            recheck();
+        }
+        return available;
+    }
+
+    public boolean isPostgreSQL() {
+        return "PostgreSQL".equals(database);
+    }
+
+    // Re-reads the schema now; true if search can be served
+    public boolean recheck() {
+        nextCheck = System.nanoTime() + RECHECK_INTERVAL.toNanos();
+        available = schema().ready();
+        return available;
+    }
+
+    public Schema schema() {
+        return jdbcTemplate.queryForObject(SCHEMA_SQL, (rs, rowNum) -> {
+            Boolean valid = rs.getObject("index_valid", Boolean.class);
+            return new Schema(rs.getBoolean("has_column"),
+                    valid == null ? IndexState.MISSING : valid ? IndexState.VALID : IndexState.INVALID);
+        });
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    // Best matches first: rank, then id for a stable order among equal ranks.
+    // Only the first maxMatches matches are candidates (see class comment).
+    public List<ProductSummary> search(String tsQuery, String category, String stockStatus, int limit) {
+        List<Object> args = new ArrayList<>();
+        String matches = matches(tsQuery, category, stockStatus, args);
+        args.add(maxMatches);
+        args.add(tsQuery);
+        args.add(limit);
+
+        return jdbcTemplate.query("""
+                WITH candidates AS MATERIALIZED (
+                    SELECT v.id, v.name, v.category, v.price, v.stock, v.stock_status,
+                           v.description, v.created_at, v.last_updated_at, v.search_vector
+                    %s
+                    LIMIT ?
+                )
+                SELECT * FROM candidates
+                ORDER BY ts_rank_cd(search_vector, to_tsquery('simple', ?)) DESC, id
+                LIMIT ?
+                """.formatted(matches), SUMMARY_MAPPER, args.toArray());
+    }
+
+    // Counts over the same first maxMatches matches; one extra row tells
+    // "exactly maxMatches" apart from "more than that"
+    public Facets facets(String tsQuery, String category, String stockStatus) {
+        List<Object> args = new ArrayList<>();
+        String matches = matches(tsQuery, category, stockStatus, args);
+        args.add(maxMatches + 1);
+
+        Map<String, Long> categories    = new LinkedHashMap<>();
+        Map<String, Long> stockStatuses = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                WITH hits AS (
+                    SELECT v.category, v.stock_status
+                    %s
+                    LIMIT ?
+                )
+                SELECT 'category' AS facet, category AS value, COUNT(*) AS hits FROM hits GROUP BY category
+                UNION ALL
+                SELECT 'stockStatus', stock_status, COUNT(*) FROM hits GROUP BY stock_status
+                ORDER BY hits DESC
+                """.formatted(matches), rs -> {
+            Map<String, Long> target = "category".equals(rs.getString("facet")) ? categories : stockStatuses;
+            target.put(rs.getString("value"), rs.getLong("hits"));
+        }, args.toArray());
+
+        long total = stockStatuses.values().stream().mapToLong(Long::longValue).sum();
+        return new Facets(categories, stockStatuses, total > maxMatches);
+    }
+
+    private static String matches(String tsQuery, String category, String stockStatus, List<Object> args) {
+        StringBuilder sql = new StringBuilder(MATCHES);
+        args.add(tsQuery);
+        if (category != null) {
+            sql.append("  AND v.category = ?\n");
+            args.add(category);
+        }
+        if (stockStatus != null) {
+            sql.append("  AND v.stock_status = ?\n");
+            args.add(stockStatus);
+        }
+        return sql.toString();
+    }
+}
@@ -5,6 +5,9 @@ import com.sheemab.CQRS.command_entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * WRITE REPOSITORY — exclusively used by the command side.
  *
@@ -17,4 +20,10 @@ import org.springframework.stereotype.Repository;
 public interface ProductWriteRepository extends JpaRepository<Product, String> {
 
     boolean existsByNameAndCategory(String name, String category);
+
+    // Set-based lookup of existing products for bulk upserts: one query per chunk.
+    // Returns a superset (any name × any category); callers match exact pairs.
+    // Soft-deleted products are included: like existsByNameAndCategory, they
+    // still own their name + category.
+    List<Product> findByNameInAndCategoryIn(Collection<String> names, Collection<String> categories);
 }
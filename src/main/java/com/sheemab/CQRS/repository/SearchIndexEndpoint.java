@@ -0,0 +1,34 @@
+package com.sheemab.CQRS.repository;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * ACTUATOR ENDPOINT — /actuator/searchindex
+ *
+ *   GET  → state of the search column and idx_pv_search (missing, invalid,
+ *          valid), whether search is on, and the current or last install
+ *   POST → start the install; no-op if one is already running
+ */
+@Component
+@Endpoint(id = "searchindex")
+@RequiredArgsConstructor
+public class SearchIndexEndpoint {
+
+    private final SearchIndexInstaller installer;
+
+    @ReadOperation
+    public SearchIndexInstaller.Status status() {
+        return installer.status();
+    }
+
+    @WriteOperation
+    public SearchIndexInstaller.Status start() {
+        installer.start();
+        return installer.status();
+    }
+}
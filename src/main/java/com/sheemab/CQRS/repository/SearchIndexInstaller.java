@@ -0,0 +1,139 @@
+package com.sheemab.CQRS.repository;
+
+
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.config.SearchProperties;
+import com.sheemab.CQRS.config.WorkerThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Installs the full-text search column and index on product_views — an
+ * explicit admin task (/actuator/searchindex), not part of every startup:
+ *
+ *   1. ADD COLUMN search_vector ... GENERATED ALWAYS ... STORED rewrites
+ *      product_views under an ACCESS EXCLUSIVE lock: reads and projection
+ *      writes wait until it is done. Start it when that is acceptable.
+ *   2. An idx_pv_search left INVALID by an interrupted CREATE INDEX
+ *      CONCURRENTLY is dropped; IF NOT EXISTS would skip it for good.
+ *   3. CREATE INDEX CONCURRENTLY builds the GIN index without blocking
+ *      writes.
+ *
+ * Steps already done are skipped, so running it again is safe — also
+ * after a failure. Search turns on once the column and a valid index exist.
+ * With cqrs.search.install-on-startup=true it runs once at startup instead.
+ */
+@Component
+@Slf4j
+public class SearchIndexInstaller {
+
+    public record Status(String state, Instant startedAt, Instant finishedAt, String database,
+                         boolean searchColumn, ProductSearchRepository.IndexState index,
+                         boolean available, String error) {
+    }
+
+    private final JdbcTemplate            jdbcTemplate;
+    private final ProductSearchRepository searchRepository;
+    private final WorkerThreads           workerThreads;
+    private final boolean                 installOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile String  state = "IDLE";
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String  error;
+
+    public SearchIndexInstaller(@Qualifier(ReadStore.JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                                ProductSearchRepository searchRepository,
+                                WorkerThreads workerThreads,
+                                SearchProperties properties) {
+        this.jdbcTemplate     = jdbcTemplate;
+        this.searchRepository = searchRepository;
+        this.workerThreads    = workerThreads;
+        this.installOnStartup = properties.isInstallOnStartup();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (installOnStartup && searchRepository.isPostgreSQL() && running.compareAndSet(false, true)) {
+            startedAt = Instant.now();
+            install();
+        }
+    }
+
+    /**
+     * Starts the install in the background.
+     * Returns false if one is already running or the database isn't PostgreSQL.
+     */
+    public boolean start() {
+        if (!searchRepository.isPostgreSQL() || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        error      = null;
+        finishedAt = null;
+        startedAt  = Instant.now();
+        state      = "ADDING_COLUMN";
+
+        workerThreads.start("search-index-install", this::install);
+        return true;
+    }
+
+    public Status status() {
+        if (!searchRepository.isPostgreSQL()) {
+            return new Status(state, startedAt, finishedAt, searchRepository.getDatabase(),
+                    false, null, false, "Product search requires PostgreSQL");
+        }
+        ProductSearchRepository.Schema schema = searchRepository.schema();
+        return new Status(state, startedAt, finishedAt, searchRepository.getDatabase(),
+                schema.searchColumn(), schema.index(), searchRepository.isAvailable(), error);
+    }
+
+    // ── The install itself (no transaction: CONCURRENTLY can't run in one) ───
+
+    private void install() {
+        try {
+            ProductSearchRepository.Schema schema = searchRepository.schema();
+
+            // ── 1. Generated column (table rewrite) ───────────────────────────
+            if (!schema.searchColumn()) {
+                state = "ADDING_COLUMN";
+                log.info("Adding search_vector to product_views (rewrites the table)");
+                jdbcTemplate.execute(ProductSearchRepository.ADD_COLUMN_SQL);
+            }
+
+            // ── 2. Drop an index a failed concurrent build left behind ────────
+            if (schema.index() == ProductSearchRepository.IndexState.INVALID) {
+                state = "DROPPING_INVALID_INDEX";
+                log.warn("idx_pv_search is INVALID (interrupted build); dropping it");
+                jdbcTemplate.execute(ProductSearchRepository.DROP_INDEX_SQL);
+            }
+
+            // ── 3. GIN index, without blocking writes ─────────────────────────
+            if (schema.index() != ProductSearchRepository.IndexState.VALID) {
+                state = "INDEXING";
+                jdbcTemplate.execute(ProductSearchRepository.ADD_INDEX_SQL);
+            }
+
+            if (!searchRepository.recheck()) {
+                throw new IllegalStateException("Search schema still not ready: " + searchRepository.schema());
+            }
+            state = "COMPLETED";
+            log.info("Full-text product search installed and on");
+        } catch (RuntimeException ex) {
+            state = "FAILED";
+            error = ex.getMessage();
+            log.error("Installing the search column and index failed; run it again to resume", ex);
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sheemab.CQRS.repository;
+
+
+import com.sheemab.CQRS.stock.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * RESERVATION REPOSITORY — command side only.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    // SELECT ... FOR UPDATE: of two concurrent settlements of one
+    // reservation, the second waits and then finds it gone
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StockReservation> findLockedById(String id);
+}
@@ -0,0 +1,99 @@
+package com.sheemab.CQRS.retry;
+
+
+import com.sheemab.CQRS.CommandBus.CommandChain;
+import com.sheemab.CQRS.CommandBus.CommandMiddleware;
+import com.sheemab.CQRS.command.Command;
+import com.sheemab.CQRS.command.RetryableCommand;
+import com.sheemab.CQRS.config.CommandRetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MIDDLEWARE — runs a RetryableCommand again after a concurrency conflict.
+ *
+ * A ConcurrencyFailureException (optimistic version check, event-stream
+ * sequence clash, lock timeout, deadlock victim) means the handler's
+ * transaction rolled back having changed nothing, so the command can run
+ * again against the new state. Attempts are bounded (maxAttempts) and
+ * spaced by an exponential, jittered backoff.
+ *
+ * Sits outside IdempotencyMiddleware and the handler, so every attempt gets
+ * a fresh transaction. If the caller already has a transaction open the
+ * conflict has poisoned it, so nothing is retried.
+ *
+ * cqrs.command.retries{command} counts retries, and
+ * cqrs.command.retries.exhausted{command} commands that still failed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+@Slf4j
+public class ConflictRetryMiddleware implements CommandMiddleware {
+
+    private final CommandRetryProperties properties;
+    private final MeterRegistry          meterRegistry;
+
+    public ConflictRetryMiddleware(CommandRetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties    = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> commandType) {
+        return RetryableCommand.class.isAssignableFrom(commandType);
+    }
+
+    @Override
+    public Object handle(Command<?> command, CommandChain next) {
+        long backoff = properties.getInitialBackoff().toNanos();
+        long maxBackoff = properties.getMaxBackoff().toNanos();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return next.proceed(command);
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= properties.getMaxAttempts()
+                        || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    counter("cqrs.command.retries.exhausted",
+                            "Retryable commands that failed on their last attempt", command).increment();
+                    throw ex;
+                }
+                counter("cqrs.command.retries",
+                        "Commands run again after a concurrency conflict", command).increment();
+                log.debug("{} lost a concurrent update (attempt {}), retrying: {}",
+                        command.getClass().getSimpleName(), attempt, ex.getMessage());
+
+                if (!pause(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1))) {
+                    throw ex;
+                }
+                backoff = Math.min(backoff * 2, maxBackoff);
+            }
+        }
+    }
+
+    private static boolean pause(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter counter(String name, String description, Command<?> command) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("command", command.getClass().getSimpleName())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sheemab.CQRS.stock;
+
+
+import com.sheemab.CQRS.command_entity.Product;
+import com.sheemab.CQRS.event_store.ProductEventStore;
+import com.sheemab.CQRS.events.ProductStockAdjustedEvent;
+import com.sheemab.CQRS.exception.InsufficientStockException;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * STOCK LEDGER — event-sourced mode.
+ *
+ * An event stream has no "UPDATE ... WHERE stock >= ?": the aggregate is
+ * rebuilt, checked and appended at the next sequence. Two decrements that
+ * race on one product clash on that sequence (OptimisticLockingFailure);
+ * the loser's command is re-run by ConflictRetryMiddleware, on the state
+ * the winner left.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class EventSourcedStockLedger implements StockLedger {
+
+    private final ProductEventStore eventStore;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ProductStockAdjustedEvent adjust(String productId, int delta) {
+        Product product = eventStore.load(productId)
+                .filter(Product::isActive)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        return append(product, delta);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<ProductStockAdjustedEvent> restock(String productId, int quantity) {
+        return eventStore.load(productId)
+                .filter(Product::isActive)
+                .map(product -> append(product, quantity));
+    }
+
+    private ProductStockAdjustedEvent append(Product product, int delta) {
+        String productId = product.getId();
+        long expectedVersion = product.getVersion();
+
+        int stock = product.getStock() + delta;
+        if (stock < 0) {
+            throw new InsufficientStockException(productId, -delta, product.getStock());
+        }
+        product.update(product.getName(), product.getCategory(), product.getPrice(),
+                stock, product.getDescription());
+
+        // Strictly after the previous event, as the projection keeps the newest
+        LocalDateTime now = LocalDateTime.now();
+        product.setUpdatedAt(now.isAfter(product.getUpdatedAt()) ? now : product.getUpdatedAt().plusNanos(1_000));
+
+        ProductStockAdjustedEvent event = new ProductStockAdjustedEvent(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getStock(),
+                product.getDescription(),
+                product.getUpdatedAt()
+        );
+        eventStore.append(product, expectedVersion, List.of(event));
+        return event;
+    }
+}
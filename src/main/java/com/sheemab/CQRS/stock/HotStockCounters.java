@@ -0,0 +1,346 @@
+package com.sheemab.CQRS.stock;
+
+
+import com.sheemab.CQRS.config.HotStockProperties;
+import com.sheemab.CQRS.config.WorkerThreads;
+import com.sheemab.CQRS.events.ProductDeletedEvent;
+import com.sheemab.CQRS.events.ProductPatchedEvent;
+import com.sheemab.CQRS.events.ProductStockAdjustedEvent;
+import com.sheemab.CQRS.events.ProductUpdatedEvent;
+import com.sheemab.CQRS.exception.InsufficientStockException;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HOT SKUs — decrements served from memory, written to products in blocks.
+ *
+ * For the products in cqrs.stock.hot.product-ids this instance takes stock
+ * off products.stock batchSize units at a time (one conditional UPDATE via
+ * StockLedger, like any other decrement) and hands the units out from
+ * striped in-memory counters:
+ *
+ *   decrement — take the units from this thread's stripe with a CAS (no
+ *               lock, no connection); if it's short, try the other stripes;
+ *               if all are short, one thread per product refills from the
+ *               database while the others wait for it
+ *   flush     — every flushInterval, and at shutdown, units claimed but not
+ *               sold go back to products.stock (one UPDATE per product)
+ *   discard   — the held units are dropped, not returned, when the product
+ *               is deleted or its stock is SET (update, bulk upsert, a patch
+ *               of stock): the new stock level already is the truth, and
+ *               adding the held units on top of it would sell them twice
+ *
+ * Every unit handed out was first taken off products.stock by a conditional
+ * update, and a product that is gone can't be refilled or flushed to
+ * (ProductNotFoundException drops its held units too). The price: while a
+ * product is hot, the stored stock (and so product_views) is short by the
+ * units this instance holds — at most about batchSize — until the next flush.
+ *
+ * Limits, all bounded by batchSize per product and instance:
+ *   - a delete or stock update made by ANOTHER instance is seen here only at
+ *     the next refill or flush: a deleted product sells what is held until
+ *     then, and units held across another instance's stock update are
+ *     returned on top of it
+ *   - a crash loses the units held at that moment: they were taken off
+ *     products.stock and are never sold or returned (undersold, never
+ *     oversold), until stock is corrected with an update. Keep batchSize
+ *     small enough that this loss is acceptable.
+ *
+ * cqrs.stock.hot.claims counts the database writes (refills and flushes);
+ * cqrs.stock.hot.held is the number of units currently held in memory.
+ */
+@Component
+@Slf4j
+public class HotStockCounters implements SmartLifecycle {
+
+    // One counter per 64-byte cache line, so stripes don't false-share
+    private static final int PAD = 8;
+
+    private final StockLedger               ledger;
+    private final TransactionTemplate       transactions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStockProperties        properties;
+    private final WorkerThreads             workerThreads;
+    private final Map<String, Allowance>    allowances = new ConcurrentHashMap<>();
+    private final Counter                   claims;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public HotStockCounters(StockLedger ledger,
+                            TransactionTemplate transactions,
+                            ApplicationEventPublisher eventPublisher,
+                            HotStockProperties properties,
+                            WorkerThreads workerThreads,
+                            MeterRegistry meterRegistry) {
+        this.ledger         = ledger;
+        this.transactions   = transactions;
+        this.eventPublisher = eventPublisher;
+        this.properties     = properties;
+        this.workerThreads  = workerThreads;
+
+        this.claims = Counter.builder("cqrs.stock.hot.claims")
+                .description("Stock writes made for hot products (refills and flushes)")
+                .register(meterRegistry);
+        Gauge.builder("cqrs.stock.hot.held", this, HotStockCounters::held)
+                .description("Units claimed from products.stock and not yet sold or returned")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(String productId) {
+        return properties.getProductIds().contains(productId);
+    }
+
+    /** Takes quantity units of a hot product, or throws InsufficientStockException. */
+    public void decrement(String productId, int quantity) {
+        Allowance allowance = allowances.computeIfAbsent(productId, id -> new Allowance(properties.getStripes()));
+        int home = allowance.home();
+        if (allowance.tryTake(home, quantity)) {
+            return;
+        }
+        for (int i = 1; i < allowance.stripes; i++) {
+            if (allowance.tryTake((home + i) % allowance.stripes, quantity)) {
+                return;
+            }
+        }
+        refillAndTake(productId, allowance, quantity);
+    }
+
+    // ── Refill (one thread per product at a time) ─────────────────────────────
+
+    private void refillAndTake(String productId, Allowance allowance, int quantity) {
+        allowance.lock.lock();
+        try {
+            // Units may be split across stripes, each too small on its own
+            long held = allowance.drain();
+            if (held < quantity) {
+                long wanted = Math.max(properties.getBatchSize(), quantity - held);
+                try {
+                    held += claim(productId, wanted, quantity - held);
+                } catch (ProductNotFoundException ex) {
+                    dropped(productId, held);               // deleted: nothing to sell
+                    throw ex;
+                } catch (RuntimeException ex) {
+                    allowance.spread(held);
+                    throw ex;
+                }
+            }
+            allowance.spread(held - quantity);
+        } finally {
+            allowance.lock.unlock();
+        }
+    }
+
+    // Claims `wanted` units, or whatever is left if that's at least `needed`
+    private long claim(String productId, long wanted, long needed) {
+        try {
+            return adjust(productId, (int) -wanted);
+        } catch (InsufficientStockException ex) {
+            long available = ex.getAvailable();
+            if (available < needed) {
+                throw ex;
+            }
+            return adjust(productId, (int) -available);
+        }
+    }
+
+    private long adjust(String productId, int delta) {
+        transactions.executeWithoutResult(status -> eventPublisher.publishEvent(ledger.adjust(productId, delta)));
+        claims.increment();
+        return Math.abs(delta);
+    }
+
+    // ── Flush ─────────────────────────────────────────────────────────────────
+
+    /** Returns the unsold units of every hot product to products.stock. */
+    public void flush() {
+        allowances.forEach((productId, allowance) -> {
+            allowance.lock.lock();
+            try {
+                long held = allowance.drain();
+                if (held == 0) {
+                    return;
+                }
+                try {
+                    adjust(productId, (int) held);
+                } catch (ProductNotFoundException ex) {
+                    dropped(productId, held);               // deleted: nowhere to return them
+                } catch (RuntimeException ex) {
+                    allowance.spread(held);
+                    log.warn("Could not return {} held unit(s) of product {}; keeping them for now: {}",
+                            held, productId, ex.getMessage());
+                }
+            } finally {
+                allowance.lock.unlock();
+            }
+        });
+    }
+
+    private void flushLoop() {
+        long intervalMs = properties.getFlushInterval().toMillis();
+        while (running) {
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            flush();
+        }
+    }
+
+    private double held() {
+        long total = 0;
+        for (Allowance allowance : allowances.values()) {
+            total += allowance.sum();
+        }
+        return total;
+    }
+
+    // ── Discard (the product's stock was deleted or set) ──────────────────────
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ProductDeletedEvent event) {
+        discard(event.getProductId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ProductUpdatedEvent event) {
+        if (!(event instanceof ProductStockAdjustedEvent)) {        // a relative change keeps them
+            discard(event.getProductId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ProductPatchedEvent event) {
+        if (event.getStock() != null) {
+            discard(event.getProductId());
+        }
+    }
+
+    /** Drops the units held for a product without returning them to products.stock. */
+    public void discard(String productId) {
+        Allowance allowance = allowances.get(productId);
+        if (allowance == null) {
+            return;
+        }
+        allowance.lock.lock();
+        try {
+            dropped(productId, allowance.drain());
+        } finally {
+            allowance.lock.unlock();
+        }
+    }
+
+    private void dropped(String productId, long held) {
+        if (held > 0) {
+            log.info("Dropped {} held unit(s) of product {}: it was deleted or its stock was set", held, productId);
+        }
+    }
+
+    // ── Striped counters of one product ───────────────────────────────────────
+
+    private static final class Allowance {
+
+        final int             stripes;
+        final AtomicLongArray units;
+        final ReentrantLock   lock = new ReentrantLock();
+
+        Allowance(int stripes) {
+            this.stripes = Math.max(1, stripes);
+            this.units   = new AtomicLongArray(this.stripes * PAD);
+        }
+
+        int home() {
+            return (int) (Thread.currentThread().threadId() % stripes);
+        }
+
+        boolean tryTake(int stripe, int quantity) {
+            int index = stripe * PAD;
+            long current = units.get(index);
+            while (current >= quantity) {
+                if (units.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+                current = units.get(index);
+            }
+            return false;
+        }
+
+        long drain() {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += units.getAndSet(i * PAD, 0);
+            }
+            return total;
+        }
+
+        void spread(long total) {
+            long share = total / stripes;
+            for (int i = 0; i < stripes; i++) {
+                units.addAndGet(i * PAD, i == 0 ? share + total % stripes : share);
+            }
+        }
+
+        long sum() {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += units.get(i * PAD);
+            }
+            return total;
+        }
+    }
+
+    // ── Lifecycle ─────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.getProductIds().isEmpty()) {
+            flusher = workerThreads.start("hot-stock-flush", this::flushLoop);
+            log.info("Hot stock counters on for {} product(s): stripes={}, batchSize={}, flushInterval={}",
+                    properties.getProductIds().size(), properties.getStripes(),
+                    properties.getBatchSize(), properties.getFlushInterval());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop AFTER the web server, so no decrement arrives after the last flush
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
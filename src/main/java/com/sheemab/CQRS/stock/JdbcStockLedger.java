@@ -0,0 +1,93 @@
+package com.sheemab.CQRS.stock;
+
+
+import com.sheemab.CQRS.events.ProductStockAdjustedEvent;
+import com.sheemab.CQRS.exception.InsufficientStockException;
+import com.sheemab.CQRS.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * STOCK LEDGER — one conditional UPDATE on products, no load-modify-save.
+ *
+ * The check and the change are a single statement, so concurrent
+ * decrements of one product queue on its row lock instead of failing a
+ * @Version check: each one sees the stock the previous one left, and the
+ * one that would go below zero matches no row.
+ *
+ * version is still bumped, so a concurrent UpdateProductCommand that
+ * loaded the product before the change fails its version check rather
+ * than writing an old stock value back.
+ *
+ * updated_at is kept strictly increasing per product even when two
+ * transactions stamp the same microsecond (or a clock step back): the
+ * projection keeps the newest row by that timestamp.
+ */
+@Component
+@ConditionalOnProperty(name = "cqrs.event-sourcing.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JdbcStockLedger implements StockLedger {
+
+    private static final String ADJUST_SQL = """
+            UPDATE products
+            SET stock      = stock + ?,
+                version    = version + 1,
+                updated_at = GREATEST(CAST(? AS TIMESTAMP), updated_at + INTERVAL '0.000001' SECOND)
+            WHERE id = ? AND active = TRUE AND stock + ? >= 0
+            """;
+
+    // Read back through the row lock the UPDATE holds: exactly the state it wrote
+    private static final String READ_SQL =
+            "SELECT id, name, category, price, stock, description, updated_at FROM products WHERE id = ?";
+
+    private static final String STOCK_SQL =
+            "SELECT stock FROM products WHERE id = ? AND active = TRUE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ProductStockAdjustedEvent adjust(String productId, int delta) {
+        int updated = jdbcTemplate.update(ADJUST_SQL,
+                delta, Timestamp.valueOf(LocalDateTime.now()), productId, delta);
+
+        if (updated == 0) {
+            List<Integer> stock = jdbcTemplate.queryForList(STOCK_SQL, Integer.class, productId);
+            if (stock.isEmpty()) {
+                throw new ProductNotFoundException(productId);
+            }
+            throw new InsufficientStockException(productId, -delta, stock.getFirst());
+        }
+        return read(productId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<ProductStockAdjustedEvent> restock(String productId, int quantity) {
+        // Adding can't fail the stock check: no row means the product is gone
+        int updated = jdbcTemplate.update(ADJUST_SQL,
+                quantity, Timestamp.valueOf(LocalDateTime.now()), productId, quantity);
+        return updated == 0 ? Optional.empty() : Optional.of(read(productId));
+    }
+
+    private ProductStockAdjustedEvent read(String productId) {
+        return jdbcTemplate.queryForObject(READ_SQL, (rs, rowNum) -> new ProductStockAdjustedEvent(
+                rs.getString("id"),
+                rs.getString("name"),
+                rs.getString("category"),
+                rs.getBigDecimal("price"),
+                rs.getInt("stock"),
+                rs.getString("description"),
+                rs.getTimestamp("updated_at").toLocalDateTime()
+        ), productId);
+    }
+}
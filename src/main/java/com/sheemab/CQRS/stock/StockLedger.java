@@ -0,0 +1,30 @@
+package com.sheemab.CQRS.stock;
+
+
+import com.sheemab.CQRS.events.ProductStockAdjustedEvent;
+
+import java.util.Optional;
+
+/**
+ * Changes a product's stock by a signed amount, inside the caller's
+ * transaction, and returns the event describing the product afterwards
+ * (a ProductStockAdjustedEvent: a relative change, not a new stock level).
+ * The caller publishes it.
+ *
+ * Stock never goes below zero: a decrement larger than the stock throws
+ * InsufficientStockException and changes nothing. Unknown or deleted
+ * products throw ProductNotFoundException.
+ *
+ * restock puts units back (a released reservation). A deleted product has
+ * no stock to return them to: nothing changes, the result is empty, and
+ * the caller's transaction is not marked for rollback.
+ *
+ * JdbcStockLedger (state-based mode) and EventSourcedStockLedger
+ * (cqrs.event-sourcing.enabled=true) are the two implementations.
+ */
+public interface StockLedger {
+
+    ProductStockAdjustedEvent adjust(String productId, int delta);
+
+    Optional<ProductStockAdjustedEvent> restock(String productId, int quantity);
+}
@@ -0,0 +1,44 @@
+package com.sheemab.CQRS.stock;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * STOCK RESERVATION — units held for a pending order.
+ *
+ * The units are taken off products.stock when the row is inserted, in the
+ * same transaction. Releasing deletes the row and puts them back;
+ * decrementing deletes the row and keeps them off. Either way the row is
+ * locked first, so a reservation is settled exactly once.
+ */
+@Entity
+@Table(
+        name = "stock_reservations",
+        indexes = {
+                @Index(name = "idx_stock_reservations_product", columnList = "product_id")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "product_id", nullable = false)
+    private String productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
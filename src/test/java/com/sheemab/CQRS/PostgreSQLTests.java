@@ -0,0 +1,22 @@
+package com.sheemab.CQRS;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Base for tests that need real PostgreSQL (full-text search, query plans):
+ * starts one in a container and points spring.datasource at it. Without
+ * Docker the tests are skipped rather than failed.
+ *
+ * Subclasses add @SpringBootTest with spring.jpa.hibernate.ddl-auto set,
+ * since Boot doesn't create the schema for a non-embedded database.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgreSQLTests {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+}
@@ -0,0 +1,152 @@
+package com.sheemab.CQRS.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the application against two in-memory H2 databases standing in for
+ * the primary and the replica. Each holds a one-row db_marker table naming
+ * itself, so a query through the application's DataSource shows which
+ * database actually served it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTests.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cqrs.outbox.enabled=false",
+        "cqrs.datasource.replica.enabled=true",
+        "cqrs.datasource.replica.url=" + ReadReplicaRoutingTests.REPLICA_URL
+})
+class ReadReplicaRoutingTests {
+
+    static final String PRIMARY_URL =
+            "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void markDatabases() {
+        mark(PRIMARY_URL, "primary");
+        mark(REPLICA_URL, "replica");
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        assertThat(servedBy(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void writesAndNonTransactionalCallsUseThePrimary() {
+        assertThat(servedBy(false)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    void onPrimaryOverridesTheReplica() {
+        assertThat(ReplicaRouting.onPrimary(() -> servedBy(true))).isEqualTo("primary");
+        assertThat(servedBy(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void recentWriteKeepsTheClientOnThePrimary() throws Exception {
+        ReplicaProperties properties = new ReplicaProperties();
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(properties);
+
+        MockHttpServletResponse commandResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/products"), commandResponse,
+                (request, response) -> { });
+        Cookie lastWrite = commandResponse.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(lastWrite).isNotNull();
+
+        MockHttpServletRequest followUp = new MockHttpServletRequest("GET", "/api/products/1");
+        followUp.setCookies(lastWrite);
+        assertThat(servedByBehind(filter, followUp)).isEqualTo("primary");
+
+        MockHttpServletRequest otherClient = new MockHttpServletRequest("GET", "/api/products/1");
+        assertThat(servedByBehind(filter, otherClient)).isEqualTo("replica");
+
+        MockHttpServletRequest staleWrite = new MockHttpServletRequest("GET", "/api/products/1");
+        staleWrite.setCookies(new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(System.currentTimeMillis() - properties.getReadYourWritesWindow().toMillis())));
+        assertThat(servedByBehind(filter, staleWrite)).isEqualTo("replica");
+    }
+
+    @Test
+    void failedReplicaFallsBackToThePrimaryUntilRetryAfter() throws SQLException {
+        DataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+        AtomicInteger replicaAttempts = new AtomicInteger();
+        DataSource deadReplica = new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                replicaAttempts.incrementAndGet();
+                throw new SQLException("replica down");
+            }
+        };
+
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setRetryAfter(Duration.ofMinutes(1));
+        ReplicaDataSource reads = new ReplicaDataSource(deadReplica, primary, properties, new SimpleMeterRegistry());
+
+        assertThat(new JdbcTemplate(reads).queryForObject("SELECT name FROM db_marker", String.class))
+                .isEqualTo("primary");
+        assertThat(new JdbcTemplate(reads).queryForObject("SELECT name FROM db_marker", String.class))
+                .isEqualTo("primary");
+        assertThat(replicaAttempts).hasValue(1);            // skipped while retryAfter runs
+
+        properties.setFallbackToPrimary(false);
+        ReplicaDataSource strict = new ReplicaDataSource(deadReplica, primary, properties, new SimpleMeterRegistry());
+        assertThatThrownBy(strict::getConnection).isInstanceOf(SQLException.class);
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private String servedBy(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class));
+    }
+
+    private String servedByBehind(ReadYourWritesFilter filter, MockHttpServletRequest request) throws Exception {
+        AtomicReference<String> servedBy = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> servedBy.set(servedBy(true)));
+        return servedBy.get();
+    }
+
+    private static void mark(String url, String name) {
+        JdbcTemplate database = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        database.execute("CREATE TABLE IF NOT EXISTS db_marker (name VARCHAR(16) NOT NULL)");
+        database.update("DELETE FROM db_marker");
+        database.update("INSERT INTO db_marker (name) VALUES (?)", name);
+    }
+}
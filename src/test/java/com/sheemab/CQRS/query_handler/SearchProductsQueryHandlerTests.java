@@ -0,0 +1,194 @@
+package com.sheemab.CQRS.query_handler;
+
+import com.sheemab.CQRS.CommandBus.CommandBus;
+import com.sheemab.CQRS.PostgreSQLTests;
+import com.sheemab.CQRS.QueryBus.QueryBus;
+import com.sheemab.CQRS.command.CreateProductCommand;
+import com.sheemab.CQRS.command.UpdateProductCommand;
+import com.sheemab.CQRS.config.ReadStore;
+import com.sheemab.CQRS.query.SearchProductsQuery;
+import com.sheemab.CQRS.query_entity.ProductView;
+import com.sheemab.CQRS.query_response.ProductSummary;
+import com.sheemab.CQRS.query_response.SearchResult;
+import com.sheemab.CQRS.repository.ProductReadRepository;
+import com.sheemab.CQRS.repository.ProductSearchRepository;
+import com.sheemab.CQRS.repository.SearchIndexInstaller;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Search end to end on PostgreSQL: products go in through the CommandBus,
+ * the projection writes product_views (and so the generated tsvector), and
+ * SearchProductsQuery reads them back.
+ *
+ * Every test tags its products with a unique word and searches for it, so
+ * the tests don't see each other's rows. max-matches is lowered so the cap
+ * can be hit with a handful of products; the search column and index are
+ * installed at startup, as the empty schema makes that cheap.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cqrs.outbox.enabled=false",
+        "cqrs.search.max-matches=5",
+        "cqrs.search.install-on-startup=true"
+})
+class SearchProductsQueryHandlerTests extends PostgreSQLTests {
+
+    @Autowired
+    private CommandBus commandBus;
+
+    @Autowired
+    private QueryBus queryBus;
+
+    @Autowired
+    private ProductReadRepository readRepository;
+
+    @Autowired
+    private SearchIndexInstaller installer;
+
+    @Autowired
+    @Qualifier(ReadStore.JDBC_TEMPLATE)
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void prefixesMatchAndNameMatchesRankFirst() {
+        String tag = tag();
+        String inDescription = create(tag + " Desk Lamp", "Lighting", "Pairs well with a wireless mouse");
+        String inName        = create(tag + " Wireless Mouse", "Electronics", "Two buttons");
+        create(tag + " Keyboard", "Electronics", "Wired");
+
+        SearchResult result = search(tag + " wirel mou", null);
+
+        assertThat(result.getItems()).extracting(ProductSummary::getId)
+                .containsExactly(inName, inDescription);
+    }
+
+    @Test
+    void facetsCountEveryMatchAndFiltersDrillDown() {
+        String tag = tag();
+        for (int i = 0; i < 3; i++) {
+            create(tag + " Cable " + i, "Electronics", null);
+        }
+        create(tag + " Cable organiser", "Office", null);
+
+        SearchResult all = queryBus.dispatch(new SearchProductsQuery(tag + " cable", null, null, 1));
+        assertThat(all.getItems()).hasSize(1);
+        assertThat(all.getCategoryFacets())
+                .containsEntry("Electronics", 3L)
+                .containsEntry("Office", 1L);
+        assertThat(all.getStockStatusFacets()).containsEntry("IN STOCK", 4L);
+        assertThat(all.isMatchesCapped()).isFalse();
+
+        SearchResult office = search(tag + " cable", "Office");
+        assertThat(office.getItems()).extracting(ProductSummary::getCategory).containsExactly("Office");
+        assertThat(office.getCategoryFacets()).containsOnlyKeys("Office");
+    }
+
+    @Test
+    void broadSearchesAreCappedAndSaySo() {
+        String tag = tag();
+        for (int i = 0; i < 7; i++) {
+            create(tag + " Widget " + i, "Tools", null);
+        }
+
+        SearchResult result = search(tag + " widget", null);
+
+        assertThat(result.isMatchesCapped()).isTrue();
+        assertThat(result.getItems()).hasSize(5);
+        assertThat(result.getCategoryFacets().get("Tools")).isLessThan(7L);
+    }
+
+    @Test
+    void projectionKeepsTheIndexCurrent() {
+        String tag = tag();
+        String id = create(tag + " Teapot", "Kitchen", null);
+
+        commandBus.dispatch(UpdateProductCommand.builder()
+                .productId(id)
+                .name(tag + " Kettle")
+                .category("Kitchen")
+                .price(BigDecimal.TEN)
+                .stock(5)
+                .build());
+        awaitView(id, view -> view.getName().endsWith("Kettle"));
+
+        assertThat(search(tag + " kettle", null).getItems()).extracting(ProductSummary::getId).containsExactly(id);
+        assertThat(search(tag + " teapot", null).getItems()).isEmpty();
+    }
+
+    @Test
+    void installReplacesAnIndexLeftInvalidByAFailedConcurrentBuild() {
+        String tag = tag();
+        create(tag + " Hammer", "Tools", null);
+        create(tag + " Saw", "Tools", null);
+
+        // A unique concurrent build over duplicate values fails and leaves its index INVALID
+        jdbcTemplate.execute("DROP INDEX idx_pv_search");
+        assertThatThrownBy(() -> jdbcTemplate.execute(
+                "CREATE UNIQUE INDEX CONCURRENTLY idx_pv_search ON product_views (category)"))
+                .isInstanceOf(DataAccessException.class);
+        assertThat(installer.status().index()).isEqualTo(ProductSearchRepository.IndexState.INVALID);
+
+        assertThat(installer.start()).isTrue();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!installer.status().state().equals("COMPLETED")) {
+            assertThat(installer.status().state()).isNotEqualTo("FAILED");
+            assertThat(System.nanoTime()).as("search index install").isLessThan(deadline);
+            pause();
+        }
+
+        assertThat(installer.status().index()).isEqualTo(ProductSearchRepository.IndexState.VALID);
+        assertThat(search(tag + " hammer", null).getItems()).hasSize(1);
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private SearchResult search(String text, String category) {
+        return queryBus.dispatch(new SearchProductsQuery(text, category, null, null));
+    }
+
+    private String create(String name, String category, String description) {
+        String id = commandBus.dispatch(CreateProductCommand.builder()
+                .name(name)
+                .category(category)
+                .price(BigDecimal.TEN)
+                .stock(5)
+                .description(description)
+                .build());
+        awaitView(id, view -> true);
+        return id;
+    }
+
+    // The projection is asynchronous: wait until the view row shows the change
+    private void awaitView(String id, Predicate<ProductView> written) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!readRepository.findById(id).filter(written).isPresent()) {
+            assertThat(System.nanoTime()).as("projection of product %s", id).isLessThan(deadline);
+            pause();
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String tag() {
+        return "t" + UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,118 @@
+package com.sheemab.CQRS.repository;
+
+import com.sheemab.CQRS.PostgreSQLTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Proves from the PostgreSQL plan that every keyset and range query in
+ * ProductReadRepository is ONE index range scan in ORDER BY order:
+ * the expected index, every predicate in its Index Cond (no Filter),
+ * and no Sort node.
+ *
+ * Each test calls the repository method, takes the SQL Hibernate actually
+ * ran (RecordingStatementInspector) and EXPLAINs its generic plan, so a
+ * change to the JPQL or to Hibernate's translation shows up here. The test
+ * tables are tiny, so sequential / bitmap scans and sorts are disabled for
+ * the transaction — the planner then shows the index it CAN use, and a
+ * missing index would surface as a Sort or a Filter.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.sheemab.CQRS.repository.RecordingStatementInspector",
+        "cqrs.outbox.enabled=false"
+})
+@Transactional
+class ProductRangeQueryPlanTests extends PostgreSQLTests {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private ProductReadRepository readRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void forceIndexPlans() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_sort = off");
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    void nameKeysetIsOneRangeScan() {
+        readRepository.findActiveAfter("Mouse", "6f1c", PageRequest.ofSize(101));
+        assertSingleRangeScan("idx_pv_active_name_id");
+    }
+
+    @Test
+    void categoryNameKeysetIsOneRangeScan() {
+        readRepository.findActiveInCategoryAfter("Electronics", "Mouse", "6f1c", PageRequest.ofSize(101));
+        assertSingleRangeScan("idx_pv_category_active_name_id");
+    }
+
+    @Test
+    void priceRangeIsOneRangeScan() {
+        readRepository.findActiveInPriceRangeAfter(new BigDecimal("10.00"), new BigDecimal("50.00"),
+                new BigDecimal("10.00"), "", PageRequest.ofSize(101));
+        assertSingleRangeScan("idx_pv_active_price_id");
+    }
+
+    @Test
+    void categoryAndPriceRangeIsOneRangeScan() {
+        readRepository.findActiveInCategoryAndPriceRangeAfter("Electronics", new BigDecimal("10.00"),
+                new BigDecimal("50.00"), new BigDecimal("25.00"), "6f1c", PageRequest.ofSize(101));
+        assertSingleRangeScan("idx_pv_category_active_price_id");
+    }
+
+    @Test
+    void stockBelowThresholdIsOneRangeScan() {
+        readRepository.findActiveWithStockBelowAfter(5, Integer.MIN_VALUE, "", PageRequest.ofSize(101));
+        assertSingleRangeScan("idx_pv_active_stock_id");
+    }
+
+    // EXPLAINs the last product_views query Hibernate ran, with its JDBC
+    // placeholders as $n parameters (EXPLAIN GENERIC_PLAN, PostgreSQL 16+)
+    private void assertSingleRangeScan(String index) {
+        List<String> queries = RecordingStatementInspector.recorded().stream()
+                .filter(sql -> sql.contains("product_views"))
+                .toList();
+        assertThat(queries).isNotEmpty();
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN (GENERIC_PLAN) " + numberParameters(queries.getLast()), String.class);
+        String text = String.join("\n", plan);
+
+        assertThat(plan).filteredOn(line -> line.contains("Scan")).hasSize(1);
+        assertThat(text).containsPattern("Index (Only )?Scan using " + index + " on product_views");
+        assertThat(text).contains("Index Cond");
+        assertThat(text).doesNotContain("Filter:");
+        assertThat(text).doesNotContain("Sort");
+    }
+
+    private static String numberParameters(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int n = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + ++n);
+        }
+        matcher.appendTail(numbered);
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.sheemab.CQRS.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread, so a test can
+ * EXPLAIN exactly what a repository method runs. Registered through
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDED = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        RECORDED.get().add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        RECORDED.get().clear();
+    }
+
+    static List<String> recorded() {
+        return List.copyOf(RECORDED.get());
+    }
+}